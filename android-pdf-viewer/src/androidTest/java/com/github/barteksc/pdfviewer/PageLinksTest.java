@@ -0,0 +1,72 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.github.barteksc.pdfviewer.backend.SyntheticBackend;
+import com.github.barteksc.pdfviewer.source.ByteArraySource;
+import com.github.barteksc.pdfviewer.util.FitPolicy;
+import com.github.barteksc.pdfviewer.util.SpreadMode;
+import com.shockwave.pdfium.util.Size;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(AndroidJUnit4.class)
+public class PageLinksTest {
+
+    private static final int PAGES = 3;
+
+    private PdfFile pdfFile;
+
+    @Before
+    public void setUp() throws Exception {
+        // synthetic backend ignores the context and the source
+        DocumentCache.Entry entry = DocumentCache.getInstance().openUnshared(null,
+                new ByteArraySource(new byte[0]), new SyntheticBackend(PAGES, 0, new Size(600, 800)), null);
+        pdfFile = new PdfFile(entry, FitPolicy.WIDTH, null, true, 0, false, false, SpreadMode.NONE);
+        pdfFile.measurePageSizes();
+    }
+
+    @After
+    public void tearDown() {
+        pdfFile.dispose();
+    }
+
+    @Test
+    public void loadsLinksOfPageNotOpenedYet() {
+        assertNotNull(PageLinks.load(pdfFile, 0));
+    }
+
+    @Test
+    public void loadsLinksOfPageAlreadyOpened() throws Exception {
+        // opened by rendering, by another view sharing the document or by a previous load
+        pdfFile.openPage(1);
+        assertNotNull(PageLinks.load(pdfFile, 1));
+        assertNotNull(PageLinks.load(pdfFile, 1));
+    }
+
+    @Test
+    public void returnsNullForPageWhichCannotBeOpened() {
+        assertNull(PageLinks.load(pdfFile, PAGES));
+    }
+}
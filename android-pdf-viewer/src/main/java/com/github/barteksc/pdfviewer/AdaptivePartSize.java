@@ -0,0 +1,142 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+/**
+ * Picks the size of parts rendered by a {@link PDFView}, see {@link RenderingConfig}. The size changes only
+ * when zoom or screen size change, parts in cache don't match the grid of the new zoom anyway.
+ * The size at zoom 1 is picked again only when leaving zoom 1, so neighbor pages rendered at zoom 1 while zoomed
+ * in match the grid the view uses after a page turn.
+ * Render cost is reported on the rendering thread, the size is read on the main thread, both under this lock.
+ */
+class AdaptivePartSize {
+
+    /** Weight of the newest part in the moving average of render cost */
+    private static final float COST_WEIGHT = 0.2f;
+
+    /** Adaptive part sizes are rounded to multiples of this, in pixels */
+    private static final int SIZE_STEP = 16;
+
+    /**
+     * Part size is divided by zoom raised to this power. Zoomed in, new area enters the screen in thin strips
+     * while panning and smaller parts fill them sooner. Zoomed out, whole pages are rendered at once and larger
+     * parts need fewer native calls.
+     */
+    private static final double ZOOM_EXPONENT = 0.5;
+
+    /** Bounds of the zoom factor of part size */
+    private static final float MIN_ZOOM_FACTOR = 0.5f;
+    private static final float MAX_ZOOM_FACTOR = 2f;
+
+    /** Zoom pages fit the screen at, the zoom after a page turn in paged mode */
+    private static final float FIT_ZOOM = 1f;
+
+    private final RenderingConfig config;
+    private final float density;
+
+    private float zoom = Float.NaN;
+    private long screenArea = -1;
+    private float partSize;
+    private float fitPartSize;
+
+    /** Moving average of render time per pixel of a part, 0 until the first part is rendered */
+    private float nanosPerPixel = 0;
+
+    AdaptivePartSize(RenderingConfig config, float density) {
+        this.config = config;
+        this.density = density;
+    }
+
+    /** @return part size for given zoom, the same as the last one if zoom and screen size didn't change */
+    synchronized float getPartSize(float zoom, int screenWidth, int screenHeight) {
+        updateScreenArea(screenWidth, screenHeight);
+        if (zoom != this.zoom) {
+            this.zoom = zoom;
+            if (zoom == FIT_ZOOM) {
+                partSize = fitPartSize;
+            } else {
+                fitPartSize = pickPartSize(config, density, FIT_ZOOM, screenArea, nanosPerPixel);
+                partSize = pickPartSize(config, density, zoom, screenArea, nanosPerPixel);
+            }
+        }
+        return partSize;
+    }
+
+    /** @return part size the view will use at zoom 1, whatever the current zoom */
+    synchronized float getFitPartSize(int screenWidth, int screenHeight) {
+        updateScreenArea(screenWidth, screenHeight);
+        return fitPartSize;
+    }
+
+    private void updateScreenArea(int screenWidth, int screenHeight) {
+        long screenArea = (long) screenWidth * screenHeight;
+        if (screenArea != this.screenArea) {
+            this.screenArea = screenArea;
+            fitPartSize = pickPartSize(config, density, FIT_ZOOM, screenArea, nanosPerPixel);
+            // pick the size for the current zoom again
+            zoom = Float.NaN;
+        }
+    }
+
+    /** Record render time of a part, thumbnails are not reported */
+    synchronized void onPartRendered(long nanos, int pixels) {
+        if (pixels <= 0) {
+            return;
+        }
+        float cost = (float) nanos / pixels;
+        nanosPerPixel = nanosPerPixel == 0 ? cost : nanosPerPixel + (cost - nanosPerPixel) * COST_WEIGHT;
+    }
+
+    /** Forget measured cost and the last zoom, a new document may render at different cost */
+    synchronized void reset() {
+        zoom = Float.NaN;
+        screenArea = -1;
+        nanosPerPixel = 0;
+    }
+
+    /**
+     * Part size before any render cost is measured is the same for a given screen and zoom, so parts rendered
+     * by {@link PdfPreloader} at zoom 1 match the grid of the view.
+     *
+     * @param screenArea    screen area in pixels, 0 if not known
+     * @param nanosPerPixel measured render time per pixel, 0 if not known
+     */
+    static float pickPartSize(RenderingConfig config, float density, float zoom, long screenArea,
+                              float nanosPerPixel) {
+        if (!config.isAdaptivePartSize()) {
+            return config.getPartSize();
+        }
+        float zoomFactor = clamp((float) Math.pow(zoom, -ZOOM_EXPONENT), MIN_ZOOM_FACTOR, MAX_ZOOM_FACTOR);
+        float size = config.getPartSize() * density / RenderingConfig.REFERENCE_DENSITY * zoomFactor;
+        if (nanosPerPixel > 0) {
+            // render time grows with part area
+            float minSize = (float) Math.sqrt(config.getMinPartRenderMillis() * 1000000 / nanosPerPixel);
+            float maxSize = (float) Math.sqrt(config.getMaxPartRenderMillis() * 1000000 / nanosPerPixel);
+            size = clamp(size, minSize, maxSize);
+        }
+        if (screenArea > 0) {
+            float minSize = (float) Math.sqrt((double) screenArea / config.getMaxPartsPerScreen());
+            float maxSize = (float) Math.sqrt((double) screenArea / config.getMinPartsPerScreen());
+            size = clamp(size, minSize, maxSize);
+        }
+        size = clamp(size, config.getMinPartSize(), config.getMaxPartSize());
+        return Math.max(SIZE_STEP, Math.round(size / SIZE_STEP) * SIZE_STEP);
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -125,6 +125,10 @@ class AnimationManager {
         return flinging || pageFlinging;
     }
 
+    public boolean isPageFlinging() {
+        return pageFlinging;
+    }
+
     class XAnimation extends AnimatorListenerAdapter implements AnimatorUpdateListener {
 
         @Override
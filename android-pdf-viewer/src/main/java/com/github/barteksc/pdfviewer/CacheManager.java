@@ -16,13 +16,18 @@
 package com.github.barteksc.pdfviewer;
 
 import android.graphics.RectF;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
 import androidx.annotation.Nullable;
 
 import com.github.barteksc.pdfviewer.model.PagePart;
+import com.github.barteksc.pdfviewer.util.Tracing;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
 
@@ -31,22 +36,57 @@ import static com.github.barteksc.pdfviewer.util.Constants.Cache.THUMBNAILS_CACH
 
 class CacheManager {
 
+    /** Parts of a page are bucketed into this many bands of rows by their top edge */
+    private static final int ROW_BANDS = 32;
+
     private final PriorityQueue<PagePart> passiveCache;
 
     private final PriorityQueue<PagePart> activeCache;
 
     private final List<PagePart> thumbnails;
 
+    /** Parts of both caches grouped by page and row band. Guarded by passiveActiveLock */
+    private final SparseArray<PageParts> partsByPage = new SparseArray<>();
+
+    /** Number of the next cached part, parts are drawn in this order. Guarded by passiveActiveLock */
+    private long partSequence = 0;
+
+    /** Thumbnails by page. Guarded by thumbnails */
+    private final SparseArray<PagePart> thumbnailsByPage = new SparseArray<>();
+
+    /** Incremented when parts or thumbnail of a page change. Guarded by pageVersions */
+    private final SparseIntArray pageVersions = new SparseIntArray();
+
     private final Object passiveActiveLock = new Object();
 
+    /**
+     * Memory used by bitmaps of both caches and of thumbnails, guarded by passiveActiveLock and thumbnails.
+     * Their sum is only published as a trace counter, so it is read without locking.
+     */
+    private long partsBytes, thumbnailsBytes;
+
     private final PagePartComparator orderComparator = new PagePartComparator();
 
+    private int cacheSize = CACHE_SIZE;
+
+    private int thumbnailsCacheSize = THUMBNAILS_CACHE_SIZE;
+
     public CacheManager() {
         activeCache = new PriorityQueue<>(CACHE_SIZE, orderComparator);
         passiveCache = new PriorityQueue<>(CACHE_SIZE, orderComparator);
         thumbnails = new ArrayList<>();
     }
 
+    /** Change numbers of parts and thumbnails kept, applied when the next part or thumbnail is cached */
+    public void setCacheSizes(int cacheSize, int thumbnailsCacheSize) {
+        synchronized (passiveActiveLock) {
+            this.cacheSize = cacheSize;
+        }
+        synchronized (thumbnails) {
+            this.thumbnailsCacheSize = thumbnailsCacheSize;
+        }
+    }
+
     public void cachePart(PagePart part) {
         synchronized (passiveActiveLock) {
             // If cache too big, remove and recycle
@@ -54,6 +94,15 @@ class CacheManager {
 
             // Then add part
             activeCache.offer(part);
+            partsBytes += part.getRenderedBitmap().getAllocationByteCount();
+            PageParts pageParts = partsByPage.get(part.getPage());
+            if (pageParts == null) {
+                pageParts = new PageParts();
+                partsByPage.put(part.getPage(), pageParts);
+            }
+            pageParts.add(part, partSequence++);
+            pageChanged(part.getPage());
+            publishBytes();
         }
     }
 
@@ -66,34 +115,89 @@ class CacheManager {
 
     private void makeAFreeSpace() {
         synchronized (passiveActiveLock) {
-            while ((activeCache.size() + passiveCache.size()) >= CACHE_SIZE &&
-                    !passiveCache.isEmpty()) {
-                PagePart part = passiveCache.poll();
-                part.getRenderedBitmap().recycle();
+            if (activeCache.size() + passiveCache.size() < cacheSize) {
+                return;
             }
+            Tracing.begin("PDFView: evict parts");
+            try {
+                while ((activeCache.size() + passiveCache.size()) >= cacheSize &&
+                        !passiveCache.isEmpty()) {
+                    evict(passiveCache.poll());
+                }
 
-            while ((activeCache.size() + passiveCache.size()) >= CACHE_SIZE &&
-                    !activeCache.isEmpty()) {
-                activeCache.poll().getRenderedBitmap().recycle();
+                while ((activeCache.size() + passiveCache.size()) >= cacheSize &&
+                        !activeCache.isEmpty()) {
+                    evict(activeCache.poll());
+                }
+            } finally {
+                Tracing.end();
             }
         }
     }
 
+    private void evict(PagePart part) {
+        removeFromPage(part);
+        partsBytes -= part.getRenderedBitmap().getAllocationByteCount();
+        part.getRenderedBitmap().recycle();
+    }
+
+    private void publishBytes() {
+        if (Tracing.isEnabled()) {
+            Tracing.counter("PDFView: cache bytes", (int) Math.min(Integer.MAX_VALUE, partsBytes + thumbnailsBytes));
+        }
+    }
+
+    private void removeFromPage(PagePart part) {
+        PageParts pageParts = partsByPage.get(part.getPage());
+        if (pageParts == null) {
+            return;
+        }
+        pageParts.remove(part);
+        if (pageParts.isEmpty()) {
+            partsByPage.remove(part.getPage());
+        }
+        pageChanged(part.getPage());
+    }
+
+    private void pageChanged(int page) {
+        synchronized (pageVersions) {
+            pageVersions.put(page, pageVersions.get(page) + 1);
+        }
+    }
+
+    /** @return number changed every time parts or thumbnail of given page change */
+    public int getPageVersion(int page) {
+        synchronized (pageVersions) {
+            return pageVersions.get(page);
+        }
+    }
+
     public void cacheThumbnail(PagePart part) {
         synchronized (thumbnails) {
             // If cache too big, remove and recycle
-            while (thumbnails.size() >= THUMBNAILS_CACHE_SIZE) {
-                thumbnails.remove(0).getRenderedBitmap().recycle();
+            while (thumbnails.size() >= thumbnailsCacheSize) {
+                PagePart removed = thumbnails.remove(0);
+                if (thumbnailsByPage.get(removed.getPage()) == removed) {
+                    thumbnailsByPage.remove(removed.getPage());
+                    pageChanged(removed.getPage());
+                }
+                thumbnailsBytes -= removed.getRenderedBitmap().getAllocationByteCount();
+                removed.getRenderedBitmap().recycle();
             }
 
             // Then add thumbnail
-            addWithoutDuplicates(thumbnails, part);
+            if (addWithoutDuplicates(thumbnails, part)) {
+                thumbnailsByPage.put(part.getPage(), part);
+                thumbnailsBytes += part.getRenderedBitmap().getAllocationByteCount();
+                pageChanged(part.getPage());
+            }
+            publishBytes();
         }
 
     }
 
-    public boolean upPartIfContained(int page, RectF pageRelativeBounds, int toOrder) {
-        PagePart fakePart = new PagePart(page, null, pageRelativeBounds, false, 0);
+    public boolean upPartIfContained(int page, RectF pageRelativeBounds, int toOrder, boolean nightMode) {
+        PagePart fakePart = new PagePart(page, null, pageRelativeBounds, false, 0, nightMode);
 
         PagePart found;
         synchronized (passiveActiveLock) {
@@ -111,8 +215,8 @@ class CacheManager {
     /**
      * Return true if already contains the described PagePart
      */
-    public boolean containsThumbnail(int page, RectF pageRelativeBounds) {
-        PagePart fakePart = new PagePart(page, null, pageRelativeBounds, true, 0);
+    public boolean containsThumbnail(int page, RectF pageRelativeBounds, boolean nightMode) {
+        PagePart fakePart = new PagePart(page, null, pageRelativeBounds, true, 0, nightMode);
         synchronized (thumbnails) {
             for (PagePart part : thumbnails) {
                 if (part.equals(fakePart)) {
@@ -125,15 +229,18 @@ class CacheManager {
 
     /**
      * Add part if it doesn't exist, recycle bitmap otherwise
+     *
+     * @return true if part was added
      */
-    private void addWithoutDuplicates(Collection<PagePart> collection, PagePart newPart) {
+    private boolean addWithoutDuplicates(Collection<PagePart> collection, PagePart newPart) {
         for (PagePart part : collection) {
             if (part.equals(newPart)) {
                 newPart.getRenderedBitmap().recycle();
-                return;
+                return false;
             }
         }
         collection.add(newPart);
+        return true;
     }
 
     @Nullable
@@ -154,12 +261,71 @@ class CacheManager {
         }
     }
 
+    /**
+     * Collect parts of given page which intersect given vertical range, walking only parts of row bands
+     * near the range, so the cost depends on parts on screen rather than on cache size
+     *
+     * @param top    top of the range, relative to page height
+     * @param bottom bottom of the range, relative to page height
+     * @param out    list to add parts to, in order they should be drawn
+     */
+    public void getPageParts(int page, float top, float bottom, List<PagePart> out) {
+        synchronized (passiveActiveLock) {
+            PageParts pageParts = partsByPage.get(page);
+            if (pageParts != null) {
+                pageParts.collect(top, bottom, out);
+            }
+        }
+    }
+
+    @Nullable
+    public PagePart getThumbnail(int page) {
+        synchronized (thumbnails) {
+            return thumbnailsByPage.get(page);
+        }
+    }
+
     public List<PagePart> getThumbnails() {
         synchronized (thumbnails) {
             return thumbnails;
         }
     }
 
+    /** Recycle parts and thumbnails of pages outside of given range, used by paged mode after a page turn */
+    public void retainPages(int firstPage, int lastPage) {
+        synchronized (passiveActiveLock) {
+            retainPages(passiveCache, firstPage, lastPage);
+            retainPages(activeCache, firstPage, lastPage);
+        }
+        synchronized (thumbnails) {
+            Iterator<PagePart> iterator = thumbnails.iterator();
+            while (iterator.hasNext()) {
+                PagePart part = iterator.next();
+                if (part.getPage() < firstPage || part.getPage() > lastPage) {
+                    iterator.remove();
+                    if (thumbnailsByPage.get(part.getPage()) == part) {
+                        thumbnailsByPage.remove(part.getPage());
+                        pageChanged(part.getPage());
+                    }
+                    thumbnailsBytes -= part.getRenderedBitmap().getAllocationByteCount();
+                    part.getRenderedBitmap().recycle();
+                }
+            }
+        }
+        publishBytes();
+    }
+
+    private void retainPages(PriorityQueue<PagePart> cache, int firstPage, int lastPage) {
+        Iterator<PagePart> iterator = cache.iterator();
+        while (iterator.hasNext()) {
+            PagePart part = iterator.next();
+            if (part.getPage() < firstPage || part.getPage() > lastPage) {
+                iterator.remove();
+                evict(part);
+            }
+        }
+    }
+
     public void recycle() {
         synchronized (passiveActiveLock) {
             for (PagePart part : passiveCache) {
@@ -170,12 +336,109 @@ class CacheManager {
                 part.getRenderedBitmap().recycle();
             }
             activeCache.clear();
+            partsByPage.clear();
+            partsBytes = 0;
         }
         synchronized (thumbnails) {
             for (PagePart part : thumbnails) {
                 part.getRenderedBitmap().recycle();
             }
             thumbnails.clear();
+            thumbnailsByPage.clear();
+            thumbnailsBytes = 0;
+        }
+        publishBytes();
+    }
+
+    /**
+     * Parts of a page in bands of rows, each part in the band of its top edge. A range is looked up in bands
+     * from the tallest part above it, parts of other bands cannot intersect it.
+     */
+    private static class PageParts {
+
+        private static final Comparator<Entry> SEQUENCE_COMPARATOR = new Comparator<Entry>() {
+            @Override
+            public int compare(Entry entry1, Entry entry2) {
+                return Long.compare(entry1.sequence, entry2.sequence);
+            }
+        };
+
+        private static class Entry {
+            final PagePart part;
+            final long sequence;
+
+            Entry(PagePart part, long sequence) {
+                this.part = part;
+                this.sequence = sequence;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private final List<Entry>[] bands = new List[ROW_BANDS];
+
+        /** Parts found by the last lookup, reused to avoid allocation while drawing */
+        private final List<Entry> found = new ArrayList<>();
+
+        private int size = 0;
+
+        /** Height of the tallest part cached since the page was empty, relative to page height */
+        private float maxHeight = 0;
+
+        void add(PagePart part, long sequence) {
+            RectF bounds = part.getPageRelativeBounds();
+            int band = band(bounds.top);
+            if (bands[band] == null) {
+                bands[band] = new ArrayList<>();
+            }
+            bands[band].add(new Entry(part, sequence));
+            maxHeight = Math.max(maxHeight, bounds.height());
+            size++;
+        }
+
+        void remove(PagePart part) {
+            List<Entry> entries = bands[band(part.getPageRelativeBounds().top)];
+            if (entries == null) {
+                return;
+            }
+            // parts rendered twice are equal, remove exactly this instance
+            for (int i = 0; i < entries.size(); i++) {
+                if (entries.get(i).part == part) {
+                    entries.remove(i);
+                    size--;
+                    break;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /** Add parts intersecting the range to the list, in order they were cached */
+        void collect(float top, float bottom, List<PagePart> out) {
+            int lastBand = band(bottom);
+            for (int band = band(top - maxHeight); band <= lastBand; band++) {
+                List<Entry> entries = bands[band];
+                if (entries == null) {
+                    continue;
+                }
+                for (int i = 0; i < entries.size(); i++) {
+                    RectF bounds = entries.get(i).part.getPageRelativeBounds();
+                    if (bounds.bottom > top && bounds.top < bottom) {
+                        found.add(entries.get(i));
+                    }
+                }
+            }
+            // newer parts are drawn over older ones
+            Collections.sort(found, SEQUENCE_COMPARATOR);
+            for (int i = 0; i < found.size(); i++) {
+                out.add(found.get(i).part);
+            }
+            found.clear();
+        }
+
+        private static int band(float relativeTop) {
+            return Math.max(0, Math.min(ROW_BANDS - 1, (int) (relativeTop * ROW_BANDS)));
         }
     }
 
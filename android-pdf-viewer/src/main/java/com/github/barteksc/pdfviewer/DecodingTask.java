@@ -0,0 +1,234 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.github.barteksc.pdfviewer.backend.RenderBackend;
+import com.github.barteksc.pdfviewer.listener.OnLoadProgressListener;
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+import com.github.barteksc.pdfviewer.util.FitPolicy;
+import com.github.barteksc.pdfviewer.util.SpreadMode;
+import com.github.barteksc.pdfviewer.util.Tracing;
+import com.shockwave.pdfium.util.Size;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decodes document on given {@link Executor} and reports results on main thread.
+ * <p>
+ * Cancellation is cooperative: the task checks for it between loading stages and interrupts
+ * the loading thread, so sources reading streams can stop early. Native calls cannot be
+ * interrupted, so a document opened after cancellation is released as soon as it is returned.
+ */
+class DecodingTask implements Runnable {
+
+    private static Executor defaultExecutor;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final WeakReference<PDFView> pdfViewReference;
+
+    private final Context context;
+    private final String password;
+    private final DocumentSource docSource;
+    private final RenderBackend backend;
+    private final int[] userPages;
+
+    // view state is captured on main thread, it can change while decoding
+    private final FitPolicy pageFitPolicy;
+    private final Size viewSize;
+    private final boolean swipeVertical;
+    private final int spacingPx;
+    private final boolean autoSpacing;
+    private final boolean fitEachPage;
+    private final SpreadMode spreadMode;
+    private final LoadReport loadReport;
+
+    private final Object lock = new Object();
+    private volatile boolean cancelled = false;
+    /** Thread running the task, guarded by lock */
+    private Thread runner;
+    /** True after result was delivered, accessed on main thread only */
+    private boolean finished = false;
+
+    private final Runnable timeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (finished || cancelled) {
+                return;
+            }
+            cancel();
+            PDFView pdfView = pdfViewReference.get();
+            if (pdfView != null) {
+                pdfView.loadError(new TimeoutException("Document loading timed out"));
+            }
+        }
+    };
+
+    DecodingTask(DocumentSource docSource, String password, int[] userPages, PDFView pdfView) {
+        this.docSource = docSource;
+        this.backend = pdfView.getRenderBackend();
+        this.userPages = userPages;
+        this.pdfViewReference = new WeakReference<>(pdfView);
+        this.password = password;
+        this.context = pdfView.getContext().getApplicationContext();
+        this.pageFitPolicy = pdfView.getPageFitPolicy();
+        this.viewSize = new Size(pdfView.getWidth(), pdfView.getHeight());
+        this.swipeVertical = pdfView.isSwipeVertical();
+        this.spacingPx = pdfView.getSpacingPx();
+        this.autoSpacing = pdfView.isAutoSpacingEnabled();
+        this.fitEachPage = pdfView.isFitEachPage();
+        this.spreadMode = pdfView.getSpreadMode();
+        this.loadReport = pdfView.loadReport;
+    }
+
+    /** Executor used when none was set, threads are created as needed and kept alive for a while */
+    static synchronized Executor getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            defaultExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "PDF decoder");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * Start decoding
+     *
+     * @param executor      executor to decode on
+     * @param timeoutMillis time after which loading fails with {@link TimeoutException}, 0 for no timeout
+     */
+    void execute(Executor executor, long timeoutMillis) {
+        if (timeoutMillis > 0) {
+            mainHandler.postDelayed(timeoutRunnable, timeoutMillis);
+        }
+        executor.execute(this);
+    }
+
+    /** Stop decoding, results of cancelled task are never delivered. Safe to call many times. */
+    void cancel() {
+        synchronized (lock) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+        mainHandler.removeCallbacks(timeoutRunnable);
+    }
+
+    @Override
+    public void run() {
+        synchronized (lock) {
+            if (cancelled) {
+                return;
+            }
+            runner = Thread.currentThread();
+        }
+
+        DocumentCache.Entry documentEntry = null;
+        Tracing.begin("PDFView: decode document");
+        try {
+            Tracing.begin("PDFView: open document");
+            try {
+                documentEntry = DocumentCache.getInstance().acquire(context, docSource, backend, password);
+            } finally {
+                Tracing.end();
+            }
+            if (cancelled) {
+                DocumentCache.getInstance().release(documentEntry);
+                return;
+            }
+            loadReport.mark(LoadReport.Stage.DOCUMENT_OPENED);
+            publishProgress(OnLoadProgressListener.Stage.OPENED);
+
+            PdfFile pdfFile = new PdfFile(documentEntry, pageFitPolicy, userPages,
+                    swipeVertical, spacingPx, autoSpacing, fitEachPage, spreadMode);
+            pdfFile.measurePageSizes();
+            if (cancelled) {
+                pdfFile.dispose();
+                return;
+            }
+            publishProgress(OnLoadProgressListener.Stage.SIZES_MEASURED);
+
+            pdfFile.recalculatePageSizes(viewSize);
+            loadReport.mark(LoadReport.Stage.LAYOUT_READY);
+            publishProgress(OnLoadProgressListener.Stage.LAYOUT_READY);
+            publishResult(pdfFile, null);
+        } catch (Throwable t) {
+            if (documentEntry != null) {
+                DocumentCache.getInstance().release(documentEntry);
+            }
+            publishResult(null, t);
+        } finally {
+            Tracing.end();
+            synchronized (lock) {
+                runner = null;
+                // don't leak interruption to the next task run by this thread
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void publishProgress(final OnLoadProgressListener.Stage stage) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                PDFView pdfView = pdfViewReference.get();
+                if (!cancelled && pdfView != null) {
+                    pdfView.loadProgress(stage);
+                }
+            }
+        });
+    }
+
+    private void publishResult(final PdfFile pdfFile, final Throwable error) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                mainHandler.removeCallbacks(timeoutRunnable);
+                PDFView pdfView = pdfViewReference.get();
+                if (cancelled || pdfView == null) {
+                    // cancelled after document was created, nobody else will close it
+                    if (pdfFile != null) {
+                        pdfFile.dispose();
+                    }
+                    return;
+                }
+                finished = true;
+                if (error != null) {
+                    pdfView.loadError(error);
+                } else {
+                    pdfView.loadComplete(pdfFile);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.SparseBooleanArray;
+
+import com.github.barteksc.pdfviewer.backend.RenderBackend;
+import com.github.barteksc.pdfviewer.backend.RenderDocument;
+import com.github.barteksc.pdfviewer.exception.PageRenderingException;
+import com.github.barteksc.pdfviewer.source.CacheableSource;
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+import com.github.barteksc.pdfviewer.util.Constants;
+import com.shockwave.pdfium.util.Size;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process wide cache of opened documents, so views showing the same document share one native
+ * handle and reopening a recently closed document doesn't parse it again.
+ * <p>
+ * Only documents from {@link CacheableSource} are cached, keyed by source key, backend and password.
+ * Entries are reference counted, an entry which is not used by any view is closed after
+ * {@link Constants.Cache#DOCUMENT_IDLE_TIMEOUT} or when there are more than
+ * {@link Constants.Cache#IDLE_DOCUMENTS_CACHE_SIZE} idle entries.
+ */
+class DocumentCache {
+
+    private static final DocumentCache INSTANCE = new DocumentCache();
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final Runnable evictionRunnable = new Runnable() {
+        @Override
+        public void run() {
+            evictIdle(false);
+        }
+    };
+
+    static DocumentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get opened document for the source, opening it if needed. Every acquired entry
+     * must be released with {@link #release(Entry)}.
+     */
+    Entry acquire(Context context, DocumentSource docSource, RenderBackend backend, String password)
+            throws IOException {
+        if (!(docSource instanceof CacheableSource)) {
+            return openUnshared(context, docSource, backend, password);
+        }
+
+        String key = ((CacheableSource) docSource).getCacheKey()
+                + "\n" + backend.getClass().getName() + ":" + backend.getCacheKey()
+                + "\n" + (password != null ? password : "");
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.references++;
+                return entry;
+            }
+        }
+
+        // open outside of lock, it may take long
+        RenderDocument document = backend.open(context, docSource, password);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                // opened concurrently by someone else
+                document.close();
+            } else {
+                entry = new Entry(key, document);
+                entries.put(key, entry);
+            }
+            entry.references++;
+            return entry;
+        }
+    }
+
+    /**
+     * Open a document handle nobody else uses, e.g. for a worker rendering in parallel with others.
+     * It is closed by {@link #release(Entry)}.
+     */
+    Entry openUnshared(Context context, DocumentSource docSource, RenderBackend backend, String password)
+            throws IOException {
+        return new Entry(null, backend.open(context, docSource, password));
+    }
+
+    /** Release entry, document is closed when it is not cached or when it stays idle for too long */
+    void release(Entry entry) {
+        if (entry.key == null) {
+            entry.close();
+            return;
+        }
+        synchronized (entries) {
+            if (--entry.references > 0) {
+                return;
+            }
+            entry.releaseTime = SystemClock.uptimeMillis();
+        }
+        evictIdle(true);
+    }
+
+    /** Close all documents which are not used at the moment */
+    void clear() {
+        List<Entry> toClose = new ArrayList<>();
+        synchronized (entries) {
+            for (Entry entry : new ArrayList<>(entries.values())) {
+                if (entry.references == 0) {
+                    entries.remove(entry.key);
+                    toClose.add(entry);
+                }
+            }
+        }
+        for (Entry entry : toClose) {
+            entry.close();
+        }
+    }
+
+    private void evictIdle(boolean onlyOverLimit) {
+        List<Entry> toClose = new ArrayList<>();
+        long now = SystemClock.uptimeMillis();
+        long nextEviction = Long.MAX_VALUE;
+        synchronized (entries) {
+            List<Entry> idle = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.references == 0) {
+                    idle.add(entry);
+                }
+            }
+            while (idle.size() > Constants.Cache.IDLE_DOCUMENTS_CACHE_SIZE) {
+                Entry oldest = idle.get(0);
+                for (Entry entry : idle) {
+                    if (entry.releaseTime < oldest.releaseTime) {
+                        oldest = entry;
+                    }
+                }
+                idle.remove(oldest);
+                toClose.add(oldest);
+            }
+            for (Entry entry : idle) {
+                long evictionTime = entry.releaseTime + Constants.Cache.DOCUMENT_IDLE_TIMEOUT;
+                if (!onlyOverLimit && evictionTime <= now) {
+                    toClose.add(entry);
+                } else {
+                    nextEviction = Math.min(nextEviction, evictionTime);
+                }
+            }
+            for (Entry entry : toClose) {
+                entries.remove(entry.key);
+            }
+        }
+        for (Entry entry : toClose) {
+            entry.close();
+        }
+
+        handler.removeCallbacks(evictionRunnable);
+        if (nextEviction != Long.MAX_VALUE) {
+            handler.postAtTime(evictionRunnable, nextEviction);
+        }
+    }
+
+    /** Opened document with state shared by all views using it */
+    static class Entry {
+
+        private final String key;
+        final RenderDocument document;
+        private int references;
+        private long releaseTime;
+
+        /** Original page sizes, indexed by document page, null until measured */
+        private Size[] pageSizes;
+        /** Opened pages with indicator whether opening was successful */
+        private final SparseBooleanArray openedPages = new SparseBooleanArray();
+
+        private Entry(String key, RenderDocument document) {
+            this.key = key;
+            this.document = document;
+        }
+
+        synchronized int getPageCount() {
+            if (pageSizes == null) {
+                pageSizes = new Size[document.getPageCount()];
+            }
+            return pageSizes.length;
+        }
+
+        /** Get original page size, measuring page only once */
+        synchronized Size getPageSize(int docPage) {
+            if (docPage < 0 || docPage >= getPageCount()) {
+                return new Size(0, 0);
+            }
+            if (pageSizes[docPage] == null) {
+                pageSizes[docPage] = document.getPageSize(docPage);
+            }
+            return pageSizes[docPage];
+        }
+
+        /** @return true if page was opened by this call */
+        synchronized boolean openPage(int docPage, int userPage) throws PageRenderingException {
+            if (openedPages.indexOfKey(docPage) >= 0) {
+                return false;
+            }
+            try {
+                document.openPage(docPage);
+                openedPages.put(docPage, true);
+                return true;
+            } catch (Exception e) {
+                openedPages.put(docPage, false);
+                throw new PageRenderingException(userPage, e);
+            }
+        }
+
+        synchronized boolean pageHasError(int docPage) {
+            return !openedPages.get(docPage, false);
+        }
+
+        private void close() {
+            document.close();
+        }
+    }
+}
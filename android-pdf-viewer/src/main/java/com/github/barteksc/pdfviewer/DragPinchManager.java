@@ -46,6 +46,8 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
     private boolean scrolling = false;
     private boolean scaling = false;
     private boolean enabled = false;
+    /** Long press started text selection, so moves extend it instead of scrolling */
+    private boolean selecting = false;
 
     DragPinchManager(PDFView pdfView, AnimationManager animationManager) {
         this.pdfView = pdfView;
@@ -69,6 +71,9 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
 
     @Override
     public boolean onSingleTapConfirmed(MotionEvent e) {
+        if (pdfView.clearTextSelection()) {
+            return true;
+        }
         boolean onTapHandled = pdfView.callbacks.callOnTap(e);
         boolean linkTapped = checkLinkTapped(e.getX(), e.getY());
         if (!onTapHandled && !linkTapped) {
@@ -92,8 +97,12 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
         }
         float mappedX = -pdfView.getCurrentXOffset() + x;
         float mappedY = -pdfView.getCurrentYOffset() + y;
-        int page = pdfFile.getPageAtOffset(pdfView.isSwipeVertical() ? mappedY : mappedX, pdfView.getZoom());
+        int page = pdfView.isSwipeVertical() ? pdfFile.getPageAt(mappedY, mappedX, pdfView.getZoom())
+                : pdfFile.getPageAt(mappedX, mappedY, pdfView.getZoom());
         SizeF pageSize = pdfFile.getScaledPageSize(page, pdfView.getZoom());
+        if (pageSize.getWidth() <= 0 || pageSize.getHeight() <= 0) {
+            return false;
+        }
         int pageX, pageY;
         if (pdfView.isSwipeVertical()) {
             pageX = (int) pdfFile.getSecondaryPageOffset(page, pdfView.getZoom());
@@ -102,16 +111,16 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
             pageY = (int) pdfFile.getSecondaryPageOffset(page, pdfView.getZoom());
             pageX = (int) pdfFile.getPageOffset(page, pdfView.getZoom());
         }
-        for (PdfDocument.Link link : pdfFile.getPageLinks(page)) {
-            RectF mapped = pdfFile.mapRectToDevice(page, pageX, pageY, (int) pageSize.getWidth(),
-                    (int) pageSize.getHeight(), link.getBounds());
-            mapped.sort();
-            if (mapped.contains(mappedX, mappedY)) {
-                pdfView.callbacks.callLinkHandler(new LinkTapEvent(x, y, mappedX, mappedY, mapped, link));
-                return true;
-            }
+        RectF mapped = new RectF();
+        PdfDocument.Link link = pdfView.getPageLinks(page).find((mappedX - pageX) / pageSize.getWidth(),
+                (mappedY - pageY) / pageSize.getHeight(), mapped);
+        if (link == null) {
+            return false;
         }
-        return false;
+        mapped.set(pageX + mapped.left * pageSize.getWidth(), pageY + mapped.top * pageSize.getHeight(),
+                pageX + mapped.right * pageSize.getWidth(), pageY + mapped.bottom * pageSize.getHeight());
+        pdfView.callbacks.callLinkHandler(new LinkTapEvent(x, y, mappedX, mappedY, mapped, link));
+        return true;
     }
 
     private void startPageFling(MotionEvent downEvent, MotionEvent ev, float velocityX, float velocityY) {
@@ -130,7 +139,11 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
         float offsetX = pdfView.getCurrentXOffset() - delta * pdfView.getZoom();
         float offsetY = pdfView.getCurrentYOffset() - delta * pdfView.getZoom();
         int startingPage = pdfView.findFocusPage(offsetX, offsetY);
-        int targetPage = Math.max(0, Math.min(pdfView.getPageCount() - 1, startingPage + direction));
+        // move by a whole spread, pages of a spread are shown together
+        PdfFile pdfFile = pdfView.pdfFile;
+        int adjacentPage = direction > 0
+                ? pdfFile.getSpreadEnd(startingPage) + 1 : pdfFile.getSpreadStart(startingPage) - 1;
+        int targetPage = Math.max(0, Math.min(pdfView.getPageCount() - 1, adjacentPage));
 
         SnapEdge edge = pdfView.findSnapEdge(targetPage);
         float offset = pdfView.snapOffsetForPage(targetPage, edge);
@@ -197,6 +210,7 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
     @Override
     public void onLongPress(MotionEvent e) {
         pdfView.callbacks.callOnLongPress(e);
+        selecting = pdfView.startTextSelection(e.getX(), e.getY());
     }
 
     @Override
@@ -237,8 +251,8 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
 
         PdfFile pdfFile = pdfView.pdfFile;
 
-        float pageStart = -pdfFile.getPageOffset(pdfView.getCurrentPage(), pdfView.getZoom());
-        float pageEnd = pageStart - pdfFile.getPageLength(pdfView.getCurrentPage(), pdfView.getZoom());
+        float pageStart = -pdfFile.getSpreadOffset(pdfView.getCurrentPage(), pdfView.getZoom());
+        float pageEnd = pageStart - pdfFile.getSpreadLength(pdfView.getCurrentPage(), pdfView.getZoom());
         float minX, minY, maxX, maxY;
         if (pdfView.isSwipeVertical()) {
             minX = -(pdfView.toCurrentScale(pdfFile.getMaxPageWidth()) - pdfView.getWidth());
@@ -274,12 +288,13 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
     @Override
     public boolean onScaleBegin(ScaleGestureDetector detector) {
         scaling = true;
+        pdfView.startPinchSnapshot();
         return true;
     }
 
     @Override
     public void onScaleEnd(ScaleGestureDetector detector) {
-        pdfView.loadPages();
+        pdfView.endPinch(detector.getFocusX(), detector.getFocusY());
         hideHandle();
         scaling = false;
     }
@@ -293,6 +308,17 @@ class DragPinchManager implements GestureDetector.OnGestureListener, GestureDete
         boolean retVal = scaleGestureDetector.onTouchEvent(event);
         retVal = gestureDetector.onTouchEvent(event) || retVal;
 
+        if (selecting) {
+            if (event.getActionMasked() == MotionEvent.ACTION_MOVE) {
+                pdfView.extendTextSelection(event.getX(), event.getY());
+            } else if (event.getActionMasked() == MotionEvent.ACTION_UP
+                    || event.getActionMasked() == MotionEvent.ACTION_CANCEL) {
+                selecting = false;
+                pdfView.endTextSelection();
+            }
+            return true;
+        }
+
         if (event.getAction() == MotionEvent.ACTION_UP) {
             if (scrolling) {
                 scrolling = false;
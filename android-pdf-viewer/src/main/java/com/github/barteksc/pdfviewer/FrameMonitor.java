@@ -0,0 +1,151 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.view.Choreographer;
+import android.view.Display;
+
+import java.util.EnumMap;
+
+/**
+ * Measures frames on {@link Choreographer} callbacks while the document moves. Data reported between
+ * two callbacks belongs to the frame drawn between them, callbacks stop one frame after motion stops.
+ * Used on the main thread only.
+ */
+class FrameMonitor implements Choreographer.FrameCallback {
+
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 1000000000L / 60;
+
+    private final EnumMap<FrameStats.Motion, FrameStats> stats = new EnumMap<>(FrameStats.Motion.class);
+
+    private boolean enabled = false;
+    private boolean posted = false;
+    private long frameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+    private long lastFrameTimeNanos = 0;
+
+    /** Data of the current frame */
+    private FrameStats.Motion motion;
+    private int partsRendered;
+    private int partsVisible;
+    private float screenArea;
+    private float blankArea;
+    private float thumbnailArea;
+
+    FrameMonitor() {
+        reset();
+    }
+
+    void setEnabled(boolean enabled, Display display) {
+        this.enabled = enabled;
+        if (display != null && display.getRefreshRate() > 0) {
+            frameIntervalNanos = (long) (1000000000L / display.getRefreshRate());
+        }
+        if (!enabled) {
+            stop();
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Document moved in the current frame, zoom takes precedence over other motion */
+    void onMotion(FrameStats.Motion motion) {
+        if (!enabled) {
+            return;
+        }
+        if (this.motion == null || motion == FrameStats.Motion.ZOOM) {
+            this.motion = motion;
+        }
+        if (!posted) {
+            posted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    void onPartRendered() {
+        partsRendered++;
+    }
+
+    /**
+     * Report visible part of a page drawn in the current frame
+     *
+     * @param visibleParts  parts intersecting visible area
+     * @param blankArea     visible area of the page where nothing was drawn
+     * @param thumbnailArea visible area of the page where only thumbnail was drawn
+     */
+    void onPageDrawn(int visibleParts, float blankArea, float thumbnailArea) {
+        partsVisible += visibleParts;
+        this.blankArea += blankArea;
+        this.thumbnailArea += thumbnailArea;
+    }
+
+    void setScreenArea(float screenArea) {
+        this.screenArea = screenArea;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        posted = false;
+        if (!enabled) {
+            return;
+        }
+        if (lastFrameTimeNanos != 0 && motion != null) {
+            long duration = frameTimeNanos - lastFrameTimeNanos;
+            float blankPercent = screenArea > 0 ? 100 * blankArea / screenArea : 0;
+            float thumbnailPercent = screenArea > 0 ? 100 * thumbnailArea / screenArea : 0;
+            stats.get(motion).addFrame(duration / 1000000, duration > frameIntervalNanos * 3 / 2,
+                    partsRendered, partsVisible, blankPercent, thumbnailPercent);
+        }
+        boolean moving = motion != null;
+        clearFrame();
+        if (moving) {
+            // keep measuring until a frame passes without motion
+            lastFrameTimeNanos = frameTimeNanos;
+            posted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            lastFrameTimeNanos = 0;
+        }
+    }
+
+    private void clearFrame() {
+        motion = null;
+        partsRendered = 0;
+        partsVisible = 0;
+        blankArea = 0;
+        thumbnailArea = 0;
+    }
+
+    void stop() {
+        if (posted) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            posted = false;
+        }
+        lastFrameTimeNanos = 0;
+        clearFrame();
+    }
+
+    FrameStats getStats(FrameStats.Motion motion) {
+        return new FrameStats(stats.get(motion));
+    }
+
+    void reset() {
+        for (FrameStats.Motion motion : FrameStats.Motion.values()) {
+            stats.put(motion, new FrameStats());
+        }
+    }
+}
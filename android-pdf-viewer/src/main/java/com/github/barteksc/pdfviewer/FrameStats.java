@@ -0,0 +1,162 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import java.util.Arrays;
+
+/**
+ * Frame histograms collected by {@link PDFView} while the document moves, see {@link PDFView#setFrameMonitorEnabled}.
+ * Every frame is also checked for misses, areas of visible pages not covered by rendered parts,
+ * which show a thumbnail or nothing at all.
+ */
+public class FrameStats {
+
+    /** What the document was doing during a frame */
+    public enum Motion {
+        /** Moved by finger or programmatically */
+        SCROLL,
+        /** Moved by fling animation */
+        FLING,
+        /** Moved by page fling animation, a page turn */
+        PAGE_TURN,
+        /** Zoom changed */
+        ZOOM
+    }
+
+    /** Upper bounds of frame duration buckets in milliseconds, the last bucket has no bound */
+    public static final int[] DURATION_BUCKETS_MS = {8, 12, 17, 25, 34, 50, 100};
+
+    /** Upper bounds of buckets of screen area percentage with misses, the last bucket has no bound */
+    public static final int[] MISS_BUCKETS_PERCENT = {0, 1, 5, 10, 25, 50};
+
+    private final long[] durations = new long[DURATION_BUCKETS_MS.length + 1];
+    private final long[] blankMisses = new long[MISS_BUCKETS_PERCENT.length + 1];
+    private final long[] thumbnailMisses = new long[MISS_BUCKETS_PERCENT.length + 1];
+
+    private long frames;
+    private long jankFrames;
+    private long jankFramesWithBlank;
+    private long partsRendered;
+    private long partsVisible;
+    private long jankPartsRendered;
+    private long jankPartsVisible;
+
+    FrameStats() {
+    }
+
+    FrameStats(FrameStats other) {
+        System.arraycopy(other.durations, 0, durations, 0, durations.length);
+        System.arraycopy(other.blankMisses, 0, blankMisses, 0, blankMisses.length);
+        System.arraycopy(other.thumbnailMisses, 0, thumbnailMisses, 0, thumbnailMisses.length);
+        frames = other.frames;
+        jankFrames = other.jankFrames;
+        jankFramesWithBlank = other.jankFramesWithBlank;
+        partsRendered = other.partsRendered;
+        partsVisible = other.partsVisible;
+        jankPartsRendered = other.jankPartsRendered;
+        jankPartsVisible = other.jankPartsVisible;
+    }
+
+    void addFrame(long durationMs, boolean jank, int rendered, int visible, float blankPercent, float thumbnailPercent) {
+        frames++;
+        durations[bucket(DURATION_BUCKETS_MS, durationMs)]++;
+        blankMisses[bucket(MISS_BUCKETS_PERCENT, blankPercent)]++;
+        thumbnailMisses[bucket(MISS_BUCKETS_PERCENT, thumbnailPercent)]++;
+        partsRendered += rendered;
+        partsVisible += visible;
+        if (jank) {
+            jankFrames++;
+            jankPartsRendered += rendered;
+            jankPartsVisible += visible;
+            if (blankPercent > 0) {
+                jankFramesWithBlank++;
+            }
+        }
+    }
+
+    private static int bucket(int[] bounds, float value) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (value <= bounds[i]) {
+                return i;
+            }
+        }
+        return bounds.length;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    /** @return frames which took longer than one and a half of display refresh interval */
+    public long getJankFrames() {
+        return jankFrames;
+    }
+
+    /** @return janky frames which also had blank areas on screen */
+    public long getJankFramesWithBlank() {
+        return jankFramesWithBlank;
+    }
+
+    /** @return frame counts for buckets of {@link #DURATION_BUCKETS_MS} */
+    public long[] getDurationHistogram() {
+        return durations.clone();
+    }
+
+    /** @return frame counts for buckets of {@link #MISS_BUCKETS_PERCENT} of screen where nothing was drawn */
+    public long[] getBlankMissHistogram() {
+        return blankMisses.clone();
+    }
+
+    /** @return frame counts for buckets of {@link #MISS_BUCKETS_PERCENT} of screen where only thumbnail was drawn */
+    public long[] getThumbnailMissHistogram() {
+        return thumbnailMisses.clone();
+    }
+
+    /** @return parts which finished rendering during all frames */
+    public long getPartsRendered() {
+        return partsRendered;
+    }
+
+    /** @return sum of parts visible on screen in all frames */
+    public long getPartsVisible() {
+        return partsVisible;
+    }
+
+    /** @return parts which finished rendering during janky frames */
+    public long getJankPartsRendered() {
+        return jankPartsRendered;
+    }
+
+    /** @return sum of parts visible on screen in janky frames */
+    public long getJankPartsVisible() {
+        return jankPartsVisible;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameStats{frames=" + frames +
+                ", jankFrames=" + jankFrames +
+                ", jankFramesWithBlank=" + jankFramesWithBlank +
+                ", durationsMs" + Arrays.toString(DURATION_BUCKETS_MS) + "=" + Arrays.toString(durations) +
+                ", blankPercent" + Arrays.toString(MISS_BUCKETS_PERCENT) + "=" + Arrays.toString(blankMisses) +
+                ", thumbnailPercent" + Arrays.toString(MISS_BUCKETS_PERCENT) + "=" + Arrays.toString(thumbnailMisses) +
+                ", partsRendered=" + partsRendered +
+                ", partsVisible=" + partsVisible +
+                ", jankPartsRendered=" + jankPartsRendered +
+                ", jankPartsVisible=" + jankPartsVisible +
+                '}';
+    }
+}
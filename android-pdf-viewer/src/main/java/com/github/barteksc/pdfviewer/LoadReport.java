@@ -0,0 +1,129 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.os.SystemClock;
+
+import com.github.barteksc.pdfviewer.util.Tracing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timestamps of document loading stages, from {@link PDFView#load} call to the first frame drawn with content.
+ * With {@link com.github.barteksc.pdfviewer.util.Constants#TRACING} set, every interval between stages is also
+ * emitted as an async trace section named "PDFView: STAGE", where STAGE is the stage ending the interval,
+ * so it shows up in systrace and Perfetto.
+ * <p>
+ * Stages which were skipped, e.g. when a preloaded document was adopted, are not reached.
+ */
+public class LoadReport {
+
+    public enum Stage {
+        /** {@link PDFView#load} was called */
+        LOAD_STARTED,
+        /** Document was opened by {@link com.github.barteksc.pdfviewer.source.DocumentSource#createDocument} */
+        DOCUMENT_OPENED,
+        /** Page sizes were measured and layout calculated */
+        LAYOUT_READY,
+        /** View received decoded document */
+        LOAD_COMPLETE,
+        /** First rendering task was sent to the rendering thread */
+        FIRST_TASK_ENQUEUED,
+        /** First part was rendered and passed to the view */
+        FIRST_PART_RENDERED,
+        /** First frame with document content was drawn */
+        FIRST_FRAME_DRAWN
+    }
+
+    private static final String LOAD_SECTION = "PDFView: load";
+
+    private static final AtomicInteger cookies = new AtomicInteger();
+
+    private final int cookie = cookies.incrementAndGet();
+
+    private final long constructorDurationNanos;
+
+    /** Stage timestamps from {@link SystemClock#elapsedRealtimeNanos()}, 0 if stage was not reached */
+    private final long[] times = new long[Stage.values().length];
+
+    /** Name of the trace section which is currently open */
+    private String openSection;
+
+    LoadReport(long constructorDurationNanos) {
+        this.constructorDurationNanos = constructorDurationNanos;
+    }
+
+    /** Record stage, stages are reached in order and only once. May be called from any thread, but not concurrently. */
+    synchronized void mark(Stage stage) {
+        if (times[stage.ordinal()] != 0) {
+            return;
+        }
+        times[stage.ordinal()] = SystemClock.elapsedRealtimeNanos();
+
+        if (stage == Stage.LOAD_STARTED) {
+            Tracing.beginAsync(LOAD_SECTION, cookie);
+        }
+        if (openSection != null) {
+            Tracing.endAsync(openSection, cookie);
+            openSection = null;
+        }
+        if (stage.ordinal() + 1 < Stage.values().length) {
+            openSection = "PDFView: " + Stage.values()[stage.ordinal() + 1].name();
+            Tracing.beginAsync(openSection, cookie);
+        } else {
+            Tracing.endAsync(LOAD_SECTION, cookie);
+        }
+    }
+
+    /** Close trace sections of load which will never finish */
+    synchronized void abandon() {
+        if (openSection != null) {
+            Tracing.endAsync(openSection, cookie);
+            Tracing.endAsync(LOAD_SECTION, cookie);
+            openSection = null;
+        }
+    }
+
+    synchronized boolean isReached(Stage stage) {
+        return times[stage.ordinal()] != 0;
+    }
+
+    /** @return time of {@link PDFView} constructor */
+    public long getConstructorDurationMillis() {
+        return constructorDurationNanos / 1000000;
+    }
+
+    /** @return time from {@link Stage#LOAD_STARTED} to given stage in milliseconds, or -1 if stage was not reached */
+    public synchronized long getTimeMillis(Stage stage) {
+        long time = times[stage.ordinal()];
+        if (time == 0) {
+            return -1;
+        }
+        return (time - times[Stage.LOAD_STARTED.ordinal()]) / 1000000;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder("LoadReport{constructor=")
+                .append(getConstructorDurationMillis()).append("ms");
+        for (Stage stage : Stage.values()) {
+            builder.append(", ").append(stage.name()).append('=');
+            long time = getTimeMillis(stage);
+            builder.append(time >= 0 ? time + "ms" : "-");
+        }
+        return builder.append('}').toString();
+    }
+}
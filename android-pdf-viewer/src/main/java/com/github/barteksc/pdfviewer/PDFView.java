@@ -24,18 +24,26 @@ import android.graphics.ColorMatrixColorFilter;
 import android.graphics.Paint;
 import android.graphics.Paint.Style;
 import android.graphics.PaintFlagsDrawFilter;
+import android.graphics.Path;
 import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.Region;
+import android.graphics.RegionIterator;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Build;
 import android.os.HandlerThread;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.LruCache;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
 import android.widget.RelativeLayout;
 
+import com.github.barteksc.pdfviewer.backend.PdfiumBackend;
+import com.github.barteksc.pdfviewer.backend.RenderBackend;
 import com.github.barteksc.pdfviewer.exception.PageRenderingException;
 import com.github.barteksc.pdfviewer.link.DefaultLinkHandler;
 import com.github.barteksc.pdfviewer.link.LinkHandler;
@@ -43,35 +51,47 @@ import com.github.barteksc.pdfviewer.listener.Callbacks;
 import com.github.barteksc.pdfviewer.listener.OnDrawListener;
 import com.github.barteksc.pdfviewer.listener.OnErrorListener;
 import com.github.barteksc.pdfviewer.listener.OnLoadCompleteListener;
+import com.github.barteksc.pdfviewer.listener.OnLoadProgressListener;
+import com.github.barteksc.pdfviewer.listener.OnLoadReportListener;
 import com.github.barteksc.pdfviewer.listener.OnLongPressListener;
 import com.github.barteksc.pdfviewer.listener.OnPageChangeListener;
 import com.github.barteksc.pdfviewer.listener.OnPageErrorListener;
 import com.github.barteksc.pdfviewer.listener.OnPageScrollListener;
 import com.github.barteksc.pdfviewer.listener.OnRenderListener;
+import com.github.barteksc.pdfviewer.listener.OnSearchListener;
 import com.github.barteksc.pdfviewer.listener.OnTapListener;
+import com.github.barteksc.pdfviewer.listener.OnTextSelectionListener;
 import com.github.barteksc.pdfviewer.model.PagePart;
+import com.github.barteksc.pdfviewer.model.SearchResult;
 import com.github.barteksc.pdfviewer.scroll.ScrollHandle;
 import com.github.barteksc.pdfviewer.source.AssetSource;
+import com.github.barteksc.pdfviewer.source.CacheableSource;
 import com.github.barteksc.pdfviewer.source.ByteArraySource;
 import com.github.barteksc.pdfviewer.source.DocumentSource;
 import com.github.barteksc.pdfviewer.source.FileSource;
 import com.github.barteksc.pdfviewer.source.InputStreamSource;
 import com.github.barteksc.pdfviewer.source.UriSource;
+import com.github.barteksc.pdfviewer.text.PageTextProvider;
 import com.github.barteksc.pdfviewer.util.Constants;
 import com.github.barteksc.pdfviewer.util.FitPolicy;
 import com.github.barteksc.pdfviewer.util.MathUtils;
 import com.github.barteksc.pdfviewer.util.SnapEdge;
+import com.github.barteksc.pdfviewer.util.SpreadMode;
+import com.github.barteksc.pdfviewer.util.Tracing;
 import com.github.barteksc.pdfviewer.util.Util;
 import com.shockwave.pdfium.PdfDocument;
-import com.shockwave.pdfium.PdfiumCore;
 import com.shockwave.pdfium.util.Size;
 import com.shockwave.pdfium.util.SizeF;
 
+import androidx.annotation.Nullable;
+
 import java.io.File;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * It supports animations, zoom, cache, and swipe.
@@ -151,8 +171,23 @@ public class PDFView extends RelativeLayout {
     /** Current state of the view */
     private State state = State.DEFAULT;
 
-    /** Async task used during the loading phase to decode a PDF document */
-    private DecodingAsyncTask decodingAsyncTask;
+    /** Task used during the loading phase to decode a PDF document */
+    private DecodingTask decodingTask;
+
+    /** Executor the document is decoded on, null to use the default one */
+    private Executor decodingExecutor;
+
+    /** Time after which loading fails, 0 for no timeout */
+    private long loadTimeout = 0;
+
+    /** Time spent in constructor */
+    private long constructorDurationNanos;
+
+    /** Timings of the current load, accessed by {@link DecodingTask} */
+    LoadReport loadReport;
+
+    /** True if {@link #loadReport} was delivered to listener */
+    private boolean loadReported = false;
 
     /** The thread {@link #renderingHandler} will run on */
     private HandlerThread renderingHandlerThread;
@@ -166,6 +201,9 @@ public class PDFView extends RelativeLayout {
     /** Paint object for drawing */
     private Paint paint;
 
+    /** Paint object for drawing parts rendered with other night mode setting, inverts colors */
+    private Paint invertingPaint;
+
     /** Paint object for drawing debug stuff */
     private Paint debugPaint;
 
@@ -174,6 +212,9 @@ public class PDFView extends RelativeLayout {
 
     private boolean fitEachPage = false;
 
+    /** How pages are grouped into spreads shown side by side */
+    private SpreadMode spreadMode = SpreadMode.NONE;
+
     private int defaultPage = 0;
 
     /** True if should scroll through pages vertically instead of horizontally */
@@ -185,10 +226,10 @@ public class PDFView extends RelativeLayout {
 
     private boolean nightMode = false;
 
-    private boolean pageSnap = true;
+    /** True if night mode colors are inverted once on the rendering thread instead of on every draw */
+    private boolean renderNightMode = false;
 
-    /** Pdfium core for loading and rendering PDFs */
-    private PdfiumCore pdfiumCore;
+    private boolean pageSnap = true;
 
     private ScrollHandle scrollHandle;
 
@@ -218,6 +259,21 @@ public class PDFView extends RelativeLayout {
      */
     private boolean renderDuringScale = false;
 
+    /** True if a snapshot of the screen is scaled during pinch, see {@link #startPinchSnapshot()} */
+    private boolean pinchSnapshotEnabled = false;
+
+    /** Screen captured when pinch started, kept for the next gesture while size doesn't change */
+    private Bitmap pinchSnapshot;
+
+    /** True while {@link #pinchSnapshot} is drawn instead of parts */
+    private boolean pinchSnapshotShown = false;
+
+    /** Zoom and offsets at the time the snapshot was captured */
+    private float snapshotZoom, snapshotXOffset, snapshotYOffset;
+
+    /** Pages drawn in {@link #pinchSnapshot} */
+    private final List<Integer> snapshotPages = new ArrayList<>();
+
     /** Antialiasing and bitmap filtering */
     private boolean enableAntialiasing = true;
     private PaintFlagsDrawFilter antialiasFilter =
@@ -232,9 +288,73 @@ public class PDFView extends RelativeLayout {
     /** Fling a single page at a time */
     private boolean pageFling = true;
 
+    /** Keep only the current page and its neighbors in render and cache state, see {@link #isPagedMode()} */
+    private boolean pagedMode = false;
+
     /** Pages numbers used when calling onDrawAllListener */
     private List<Integer> onDrawPagesNums = new ArrayList<>(10);
 
+    /** Parts of a page drawn in the current frame, reused between frames */
+    private final List<PagePart> visibleParts = new ArrayList<>();
+
+    /** Area of a page covered by parts drawn in the current frame, in page coordinates */
+    private final Region pageCoverage = new Region();
+
+    private final Region partRegion = new Region();
+
+    private final Rect partRect = new Rect();
+
+    private final Rect visiblePageRect = new Rect();
+
+    /** Links of recently shown pages, for hit-testing taps without native calls */
+    private final LruCache<Integer, PageLinks> pageLinks = new LruCache<>(Constants.Cache.LINKS_CACHE_SIZE);
+
+    /** Pages whose links are being loaded on the rendering thread */
+    private final SparseBooleanArray pendingLinks = new SparseBooleanArray();
+
+    /** Opens and renders documents */
+    private RenderBackend renderBackend = PdfiumBackend.getInstance();
+
+    /** Sizes of parts, thumbnails and caches of this view */
+    private RenderingConfig renderingConfig = RenderingConfig.defaults();
+
+    /** Picks part size for current zoom from {@link #renderingConfig} */
+    private AdaptivePartSize adaptivePartSize;
+
+    /** Source of page text for search, null if search is not available */
+    private PageTextProvider pageTextProvider;
+
+    /** Identifies loaded document and pages, null if the source cannot be identified */
+    private String documentFingerprint;
+
+    /** Indexes text of loaded document and answers queries */
+    private TextSearch textSearch;
+
+    private TextSearch.Query searchQuery;
+
+    /** Highlighted search matches per page, in page relative coordinates */
+    private final SparseArray<Path> searchHighlights = new SparseArray<>();
+
+    private final Paint searchHighlightPaint = new Paint();
+
+    /** Long press selects text of a page, needs page text provider */
+    private boolean textSelectionEnabled = false;
+
+    /** Selection of page text, created with loaded document when text selection is enabled */
+    private TextSelection textSelection;
+
+    private final Paint selectionHighlightPaint = new Paint();
+
+    /** Measures frames while document moves, disabled by default */
+    private final FrameMonitor frameMonitor = new FrameMonitor();
+
+    private final Region missRegion = new Region();
+
+    private final Rect missRect = new Rect();
+
+    /** Recorded parts of visible pages, null if {@link android.graphics.RenderNode} is not available */
+    private PageDisplayLists pageDisplayLists;
+
     /** Holds info whether view has been added to layout and has width and height */
     private boolean hasSize = false;
 
@@ -244,24 +364,42 @@ public class PDFView extends RelativeLayout {
     /** Construct the initial view */
     public PDFView(Context context, AttributeSet set) {
         super(context, set);
-
         renderingHandlerThread = new HandlerThread("PDF renderer");
 
         if (isInEditMode()) {
             return;
         }
 
+        long constructorStart = SystemClock.elapsedRealtimeNanos();
+        Tracing.begin("PDFView: constructor");
+
         cacheManager = new CacheManager();
+        adaptivePartSize = new AdaptivePartSize(renderingConfig, getResources().getDisplayMetrics().density);
         animationManager = new AnimationManager(this);
         dragPinchManager = new DragPinchManager(this, animationManager);
         pagesLoader = new PagesLoader(this);
 
         paint = new Paint();
+        searchHighlightPaint.setColor(0x66FFEB3B);
+        selectionHighlightPaint.setColor(0x662196F3);
+        invertingPaint = new Paint();
+        ColorMatrix colorMatrixInverted =
+                new ColorMatrix(new float[]{
+                        -1, 0, 0, 0, 255,
+                        0, -1, 0, 0, 255,
+                        0, 0, -1, 0, 255,
+                        0, 0, 0, 1, 0});
+        invertingPaint.setColorFilter(new ColorMatrixColorFilter(colorMatrixInverted));
         debugPaint = new Paint();
         debugPaint.setStyle(Style.STROKE);
 
-        pdfiumCore = new PdfiumCore(context);
         setWillNotDraw(false);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            pageDisplayLists = new PageDisplayLists();
+        }
+
+        Tracing.end();
+        constructorDurationNanos = SystemClock.elapsedRealtimeNanos() - constructorStart;
     }
 
     private void load(DocumentSource docSource, String password) {
@@ -275,9 +413,23 @@ public class PDFView extends RelativeLayout {
         }
 
         recycled = false;
+        documentFingerprint = docSource instanceof CacheableSource
+                ? ((CacheableSource) docSource).getCacheKey() + "\n" + Arrays.toString(userPages) : null;
+        loadReport = new LoadReport(constructorDurationNanos);
+        loadReported = false;
+        loadReport.mark(LoadReport.Stage.LOAD_STARTED);
+
+        PdfPreloader.Result preloaded = PdfPreloader.take(docSource, PdfPreloader.layoutKey(renderBackend, password,
+                userPages, swipeVertical, pageFitPolicy, fitEachPage, spreadMode, spacingPx, autoSpacing, bestQuality,
+                annotationRendering, defaultPage, getWidth(), getHeight(), getPartSize()));
+        if (preloaded != null) {
+            adoptPreloaded(preloaded);
+            return;
+        }
+
         // Start decoding document
-        decodingAsyncTask = new DecodingAsyncTask(docSource, password, userPages, this, pdfiumCore);
-        decodingAsyncTask.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        decodingTask = new DecodingTask(docSource, password, userPages, this);
+        decodingTask.execute(decodingExecutor != null ? decodingExecutor : DecodingTask.getDefaultExecutor(), loadTimeout);
     }
 
     /**
@@ -291,7 +443,7 @@ public class PDFView extends RelativeLayout {
         }
 
         page = pdfFile.determineValidPageNumberFrom(page);
-        float offset = page == 0 ? 0 : -pdfFile.getPageOffset(page, zoom);
+        float offset = page == 0 ? 0 : -pdfFile.getSpreadOffset(page, zoom);
         if (swipeVertical) {
             if (withAnimation) {
                 animationManager.startYAnimation(currentYOffset, offset);
@@ -322,6 +474,9 @@ public class PDFView extends RelativeLayout {
         pageNb = pdfFile.determineValidPageNumberFrom(pageNb);
         currentPage = pageNb;
 
+        if (pagedMode) {
+            cacheManager.retainPages(getFirstRetainedPage(), getLastRetainedPage());
+        }
         loadPages();
 
         if (scrollHandle != null && !documentFitsView()) {
@@ -381,20 +536,35 @@ public class PDFView extends RelativeLayout {
     }
 
     public void setNightMode(boolean nightMode) {
+        if (this.nightMode == nightMode) {
+            return;
+        }
         this.nightMode = nightMode;
-        if (nightMode) {
-            ColorMatrix colorMatrixInverted =
-                    new ColorMatrix(new float[]{
-                            -1, 0, 0, 0, 255,
-                            0, -1, 0, 0, 255,
-                            0, 0, -1, 0, 255,
-                            0, 0, 0, 1, 0});
-
-            ColorMatrixColorFilter filter = new ColorMatrixColorFilter(colorMatrixInverted);
-            paint.setColorFilter(filter);
-        } else {
-            paint.setColorFilter(null);
+        if (pageDisplayLists != null) {
+            pageDisplayLists.clear();
         }
+        if (renderNightMode) {
+            // parts of the other mode are drawn inverted until parts in the new mode replace them
+            loadPages();
+        }
+        redraw();
+    }
+
+    public boolean isNightMode() {
+        return nightMode;
+    }
+
+    /**
+     * Invert colors of parts once when rendering them, instead of applying a color filter on every draw.
+     * When night mode is switched, parts are rendered again and replaced progressively.
+     */
+    public void setRenderNightMode(boolean renderNightMode) {
+        this.renderNightMode = renderNightMode;
+    }
+
+    /** @return true if parts should be rendered with inverted colors */
+    boolean isNightModeRendered() {
+        return renderNightMode && nightMode;
     }
 
     void enableDoubletap(boolean enableDoubletap) {
@@ -420,14 +590,38 @@ public class PDFView extends RelativeLayout {
         // Stop tasks
         if (renderingHandler != null) {
             renderingHandler.stop();
-            renderingHandler.removeMessages(RenderingHandler.MSG_RENDER_TASK);
+            renderingHandler.cancelRenderingTasks();
+            renderingHandler.removeMessages(RenderingHandler.MSG_LINKS_TASK);
+        }
+        pageLinks.evictAll();
+        pendingLinks.clear();
+        if (textSearch != null) {
+            textSearch.cancel();
+            textSearch = null;
         }
-        if (decodingAsyncTask != null) {
-            decodingAsyncTask.cancel(true);
+        searchQuery = null;
+        searchHighlights.clear();
+        if (textSelection != null) {
+            textSelection.cancel();
+            textSelection = null;
+        }
+        frameMonitor.stop();
+        if (decodingTask != null) {
+            decodingTask.cancel();
+            decodingTask = null;
+        }
+        if (loadReport != null) {
+            loadReport.abandon();
+            loadReport = null;
         }
 
         // Clear caches
         cacheManager.recycle();
+        adaptivePartSize.reset();
+        if (pageDisplayLists != null) {
+            pageDisplayLists.clear();
+        }
+        releasePinchSnapshot();
 
         if (scrollHandle != null && isScrollHandleInit) {
             scrollHandle.destroyLayout();
@@ -448,6 +642,11 @@ public class PDFView extends RelativeLayout {
         state = State.DEFAULT;
     }
 
+    /** @return timings of the last load, stages which were not reached yet are reported as -1 */
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
     public boolean isRecycled() {
         return recycled;
     }
@@ -564,6 +763,15 @@ public class PDFView extends RelativeLayout {
         if (isInEditMode()) {
             return;
         }
+        Tracing.begin("PDFView: onDraw");
+        try {
+            drawView(canvas);
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    private void drawView(Canvas canvas) {
         // As I said in this class javadoc, we can think of this canvas as a huge
         // strip on which we draw all the images. We actually only draw the rendered
         // parts, of course, but we render them in the place they belong in this huge
@@ -617,21 +825,20 @@ public class PDFView extends RelativeLayout {
         // Moves the canvas before drawing any element
         float currentXOffset = this.currentXOffset;
         float currentYOffset = this.currentYOffset;
-        canvas.translate(currentXOffset, currentYOffset);
-
-        // Draws thumbnails
-        for (PagePart part : cacheManager.getThumbnails()) {
-            drawPart(canvas, part);
-
-        }
 
-        // Draws parts
-        for (PagePart part : cacheManager.getPageParts()) {
-            drawPart(canvas, part);
-            if (callbacks.getOnDrawAll() != null
-                    && !onDrawPagesNums.contains(part.getPage())) {
-                onDrawPagesNums.add(part.getPage());
-            }
+        if (pinchSnapshotShown) {
+            // Screen captured when pinch started, moved and scaled like the document since then
+            float scale = zoom / snapshotZoom;
+            canvas.save();
+            canvas.translate(currentXOffset - snapshotXOffset * scale, currentYOffset - snapshotYOffset * scale);
+            canvas.scale(scale, scale);
+            canvas.drawBitmap(pinchSnapshot, 0, 0, null);
+            canvas.restore();
+            canvas.translate(currentXOffset, currentYOffset);
+            onDrawPagesNums.addAll(snapshotPages);
+        } else {
+            canvas.translate(currentXOffset, currentYOffset);
+            drawPages(canvas, frameMonitor.isEnabled());
         }
 
         for (Integer page : onDrawPagesNums) {
@@ -643,6 +850,94 @@ public class PDFView extends RelativeLayout {
 
         // Restores the canvas position
         canvas.translate(-currentXOffset, -currentYOffset);
+
+        if (!loadReported && loadReport != null) {
+            loadReported = true;
+            loadReport.mark(LoadReport.Stage.FIRST_FRAME_DRAWN);
+            final LoadReport report = loadReport;
+            // don't call listener in the middle of drawing
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    callbacks.callOnLoadReport(report);
+                }
+            });
+        }
+    }
+
+    /** Draw pages intersecting the screen on canvas moved by current offsets, parts of other pages are not visited */
+    void drawPages(Canvas canvas, boolean measureMisses) {
+        Tracing.begin("PDFView: draw pages");
+        try {
+            if (measureMisses) {
+                frameMonitor.setScreenArea(getWidth() * getHeight());
+            }
+            if (pageDisplayLists != null && canvas.isHardwareAccelerated()) {
+                pageDisplayLists.startFrame();
+            }
+            int firstPage = pdfFile.getPageAtOffset(swipeVertical ? -currentYOffset : -currentXOffset, zoom);
+            firstPage = Math.max(firstPage, getFirstRetainedPage());
+            int lastPage = getLastRetainedPage();
+            float screenEnd = swipeVertical ? -currentYOffset + getHeight() : -currentXOffset + getWidth();
+            for (int i = firstPage; i <= lastPage && pdfFile.getSpreadOffset(i, zoom) < screenEnd; i++) {
+                drawPage(canvas, i, measureMisses);
+            }
+            if (pageDisplayLists != null && canvas.isHardwareAccelerated()) {
+                pageDisplayLists.endFrame();
+            }
+        } finally {
+            Tracing.end();
+        }
+    }
+
+    /**
+     * Capture the screen, so it is scaled as a single bitmap during pinch instead of drawing all parts.
+     * Does nothing if pinch snapshot is disabled or parts are rendered during scale.
+     */
+    void startPinchSnapshot() {
+        if (!pinchSnapshotEnabled || renderDuringScale || state != State.SHOWN
+                || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        if (pinchSnapshot == null || pinchSnapshot.getWidth() != getWidth()
+                || pinchSnapshot.getHeight() != getHeight()) {
+            releasePinchSnapshot();
+            try {
+                pinchSnapshot = Bitmap.createBitmap(getWidth(), getHeight(),
+                        bestQuality ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565);
+            } catch (OutOfMemoryError e) {
+                Log.w(TAG, "Cannot create pinch snapshot", e);
+                return;
+            }
+        }
+
+        Canvas snapshotCanvas = new Canvas(pinchSnapshot);
+        snapshotCanvas.drawColor(nightMode ? Color.BLACK : Color.WHITE);
+        snapshotCanvas.translate(currentXOffset, currentYOffset);
+        drawPages(snapshotCanvas, false);
+        // pages in the snapshot still get their onDrawAll layer, drawn live at current zoom
+        snapshotPages.clear();
+        snapshotPages.addAll(onDrawPagesNums);
+        onDrawPagesNums.clear();
+
+        snapshotZoom = zoom;
+        snapshotXOffset = currentXOffset;
+        snapshotYOffset = currentYOffset;
+        pinchSnapshotShown = true;
+    }
+
+    /** Stop drawing the snapshot and load parts at the new zoom, starting with the ones around the focus */
+    void endPinch(float focusX, float focusY) {
+        pinchSnapshotShown = false;
+        loadPages(focusX, focusY);
+    }
+
+    private void releasePinchSnapshot() {
+        pinchSnapshotShown = false;
+        if (pinchSnapshot != null) {
+            pinchSnapshot.recycle();
+            pinchSnapshot = null;
+        }
     }
 
     private void drawWithListener(Canvas canvas, int page, OnDrawListener listener) {
@@ -655,6 +950,14 @@ public class PDFView extends RelativeLayout {
                 translateY = 0;
                 translateX = pdfFile.getPageOffset(page, zoom);
             }
+            if (spreadMode != SpreadMode.NONE) {
+                // pages of a spread lie side by side, so layers can't share the secondary position
+                if (swipeVertical) {
+                    translateX = pdfFile.getSecondaryPageOffset(page, zoom);
+                } else {
+                    translateY = pdfFile.getSecondaryPageOffset(page, zoom);
+                }
+            }
 
             canvas.translate(translateX, translateY);
             SizeF size = pdfFile.getPageSize(page);
@@ -667,35 +970,177 @@ public class PDFView extends RelativeLayout {
         }
     }
 
-    /** Draw a given PagePart on the canvas */
-    private void drawPart(Canvas canvas, PagePart part) {
-        // Can seem strange, but avoid lot of calls
-        RectF pageRelativeBounds = part.getPageRelativeBounds();
-        Bitmap renderedBitmap = part.getRenderedBitmap();
-
-        if (renderedBitmap.isRecycled()) {
+    /** Draw thumbnail and parts of a given page which are visible on the screen */
+    private void drawPage(Canvas canvas, int page, boolean measureMisses) {
+        SizeF size = pdfFile.getPageSize(page);
+        float scaledHeight = toCurrentScale(size.getHeight());
+        if (scaledHeight <= 0) {
             return;
         }
 
         // Move to the target page
-        float localTranslationX = 0;
-        float localTranslationY = 0;
-        SizeF size = pdfFile.getPageSize(part.getPage());
-
+        float localTranslationX;
+        float localTranslationY;
         if (swipeVertical) {
-            localTranslationY = pdfFile.getPageOffset(part.getPage(), zoom);
-            float maxWidth = pdfFile.getMaxPageWidth();
-            localTranslationX = toCurrentScale(maxWidth - size.getWidth()) / 2;
+            localTranslationY = pdfFile.getPageOffset(page, zoom);
+            localTranslationX = pdfFile.getSecondaryPageOffset(page, zoom);
         } else {
-            localTranslationX = pdfFile.getPageOffset(part.getPage(), zoom);
-            float maxHeight = pdfFile.getMaxPageHeight();
-            localTranslationY = toCurrentScale(maxHeight - size.getHeight()) / 2;
+            localTranslationX = pdfFile.getPageOffset(page, zoom);
+            localTranslationY = pdfFile.getSecondaryPageOffset(page, zoom);
+        }
+
+        int pageWidth = (int) toCurrentScale(size.getWidth());
+        int pageHeight = (int) scaledHeight;
+        boolean drawn;
+        if (measureMisses) {
+            measureMisses(page, size, localTranslationX, localTranslationY, pageWidth, pageHeight);
         }
         canvas.translate(localTranslationX, localTranslationY);
 
-        Rect srcRect = new Rect(0, 0, renderedBitmap.getWidth(),
-                renderedBitmap.getHeight());
+        if (pageDisplayLists != null && canvas.isHardwareAccelerated()) {
+            // Record all parts of the page once, then only move the recording while scrolling
+            PageDisplayLists.PageList displayList = pageDisplayLists.get(page);
+            int version = cacheManager.getPageVersion(page);
+            if (!displayList.isValid(version, zoom, pageWidth, pageHeight)) {
+                Canvas recordingCanvas = displayList.beginRecording(pageWidth, pageHeight);
+                visiblePageRect.set(0, 0, pageWidth, pageHeight);
+                boolean recorded = drawPageParts(recordingCanvas, page, size, 0, 1);
+                displayList.endRecording(version, zoom, recorded);
+            }
+            displayList.draw(canvas);
+            drawn = displayList.hasContent();
+        } else {
+            // Vertical range of the page visible on the screen, relative to page height
+            float visibleTop = (-currentYOffset - localTranslationY) / scaledHeight;
+            float visibleBottom = visibleTop + getHeight() / scaledHeight;
 
+            // Part of the page visible on the screen, in page coordinates
+            visiblePageRect.set(0, 0, pageWidth, pageHeight);
+            drawn = visiblePageRect.intersect((int) (-currentXOffset - localTranslationX),
+                    (int) (-currentYOffset - localTranslationY),
+                    (int) (-currentXOffset - localTranslationX) + getWidth(),
+                    (int) (-currentYOffset - localTranslationY) + getHeight())
+                    && drawPageParts(canvas, page, size, visibleTop, visibleBottom);
+        }
+
+        if (drawn && callbacks.getOnDrawAll() != null) {
+            onDrawPagesNums.add(page);
+        }
+
+        // Search matches are an overlay over parts, so they don't cause rendering
+        Path highlight = searchHighlights.get(page);
+        if (highlight != null) {
+            canvas.save();
+            canvas.scale(pageWidth, pageHeight);
+            canvas.drawPath(highlight, searchHighlightPaint);
+            canvas.restore();
+        }
+        Path selection = textSelection != null ? textSelection.getHighlight(page) : null;
+        if (selection != null) {
+            canvas.save();
+            canvas.scale(pageWidth, pageHeight);
+            canvas.drawPath(selection, selectionHighlightPaint);
+            canvas.restore();
+        }
+
+        canvas.translate(-localTranslationX, -localTranslationY);
+    }
+
+    /** Report to frame monitor how much of the visible area of the page is not covered by parts */
+    private void measureMisses(int page, SizeF size, float localTranslationX, float localTranslationY,
+                               int pageWidth, int pageHeight) {
+        int left = (int) (-currentXOffset - localTranslationX);
+        int top = (int) (-currentYOffset - localTranslationY);
+        missRect.set(0, 0, pageWidth, pageHeight);
+        if (!missRect.intersect(left, top, left + getWidth(), top + getHeight())) {
+            return;
+        }
+        missRegion.set(missRect);
+
+        visibleParts.clear();
+        cacheManager.getPageParts(page, (float) missRect.top / pageHeight, (float) missRect.bottom / pageHeight,
+                visibleParts);
+        for (int i = 0; i < visibleParts.size(); i++) {
+            PagePart part = visibleParts.get(i);
+            if (!part.getRenderedBitmap().isRecycled() && partDestination(part, size, partRect)) {
+                missRegion.op(partRect, Region.Op.DIFFERENCE);
+            }
+        }
+
+        float missArea = 0;
+        RegionIterator iterator = new RegionIterator(missRegion);
+        while (iterator.next(missRect)) {
+            missArea += (float) missRect.width() * missRect.height();
+        }
+        boolean hasThumbnail = cacheManager.getThumbnail(page) != null;
+        frameMonitor.onPageDrawn(visibleParts.size(), hasThumbnail ? 0 : missArea, hasThumbnail ? missArea : 0);
+        visibleParts.clear();
+    }
+
+    /**
+     * Draw thumbnail and parts of a page within {@link #visiblePageRect}, on canvas moved to the page
+     *
+     * @param visibleTop    top of visible area relative to page height
+     * @param visibleBottom bottom of visible area relative to page height
+     * @return true if any part was drawn
+     */
+    private boolean drawPageParts(Canvas canvas, int page, SizeF size, float visibleTop, float visibleBottom) {
+        visibleParts.clear();
+        cacheManager.getPageParts(page, visibleTop, visibleBottom, visibleParts);
+
+        // Walk parts from the newest, which are drawn on top, and drop the ones hidden by newer parts.
+        // Rendered parts are opaque, so what they cover doesn't have to be drawn below them.
+        pageCoverage.setEmpty();
+        for (int i = visibleParts.size() - 1; i >= 0; i--) {
+            PagePart part = visibleParts.get(i);
+            if (part.getRenderedBitmap().isRecycled()
+                    || !partDestination(part, size, partRect)
+                    || !partRect.intersect(visiblePageRect)) {
+                visibleParts.set(i, null);
+                continue;
+            }
+            partRegion.set(partRect);
+            if (!pageCoverage.isEmpty() && !partRegion.op(pageCoverage, Region.Op.DIFFERENCE)) {
+                // nothing left after removing covered area
+                visibleParts.set(i, null);
+                continue;
+            }
+            pageCoverage.op(partRect, Region.Op.UNION);
+        }
+
+        // Thumbnail is drawn only where parts are not ready yet
+        PagePart thumbnail = cacheManager.getThumbnail(page);
+        if (thumbnail != null && !thumbnail.getRenderedBitmap().isRecycled()) {
+            partRegion.set(visiblePageRect);
+            if (pageCoverage.isEmpty()) {
+                drawPart(canvas, thumbnail, size);
+            } else if (partRegion.op(pageCoverage, Region.Op.DIFFERENCE)) {
+                canvas.save();
+                canvas.clipPath(partRegion.getBoundaryPath());
+                drawPart(canvas, thumbnail, size);
+                canvas.restore();
+            }
+        }
+
+        boolean drawn = false;
+        for (int i = 0; i < visibleParts.size(); i++) {
+            PagePart part = visibleParts.get(i);
+            if (part != null) {
+                drawPart(canvas, part, size);
+                drawn = true;
+            }
+        }
+        visibleParts.clear();
+        return drawn;
+    }
+
+    /**
+     * Calculate where a part is drawn in page coordinates
+     *
+     * @return false if part has no area
+     */
+    private boolean partDestination(PagePart part, SizeF size, Rect out) {
+        RectF pageRelativeBounds = part.getPageRelativeBounds();
         float offsetX = toCurrentScale(pageRelativeBounds.left * size.getWidth());
         float offsetY = toCurrentScale(pageRelativeBounds.top * size.getHeight());
         float width = toCurrentScale(pageRelativeBounds.width() * size.getWidth());
@@ -704,29 +1149,24 @@ public class PDFView extends RelativeLayout {
         // If we use float values for this rectangle, there will be
         // a possible gap between page parts, especially when
         // the zoom level is high.
-        RectF dstRect = new RectF((int) offsetX, (int) offsetY,
-                (int) (offsetX + width),
-                (int) (offsetY + height));
-
-        // Check if bitmap is in the screen
-        float translationX = currentXOffset + localTranslationX;
-        float translationY = currentYOffset + localTranslationY;
-        if (translationX + dstRect.left >= getWidth() || translationX + dstRect.right <= 0 ||
-                translationY + dstRect.top >= getHeight() || translationY + dstRect.bottom <= 0) {
-            canvas.translate(-localTranslationX, -localTranslationY);
+        out.set((int) offsetX, (int) offsetY, (int) (offsetX + width), (int) (offsetY + height));
+        return !out.isEmpty();
+    }
+
+    /** Draw a given PagePart on the canvas already moved to its page */
+    private void drawPart(Canvas canvas, PagePart part, SizeF size) {
+        if (!partDestination(part, size, partRect)) {
             return;
         }
 
-        canvas.drawBitmap(renderedBitmap, srcRect, dstRect, paint);
+        // parts which don't match current mode are inverted while drawing
+        canvas.drawBitmap(part.getRenderedBitmap(), null, partRect,
+                part.isNightMode() == nightMode ? paint : invertingPaint);
 
         if (Constants.DEBUG_MODE) {
             debugPaint.setColor(part.getPage() % 2 == 0 ? Color.RED : Color.BLUE);
-            canvas.drawRect(dstRect, debugPaint);
+            canvas.drawRect(partRect, debugPaint);
         }
-
-        // Restore the canvas position
-        canvas.translate(-localTranslationX, -localTranslationY);
-
     }
 
     /**
@@ -735,21 +1175,248 @@ public class PDFView extends RelativeLayout {
      * the current page displayed
      */
     public void loadPages() {
+        loadPages(Float.NaN, Float.NaN);
+    }
+
+    /**
+     * Load parts like {@link #loadPages()}, but the ones around given point of the screen first
+     *
+     * @param focusX x coordinate on the screen, NaN to load from the top left corner
+     * @param focusY y coordinate on the screen, NaN to load from the top left corner
+     */
+    void loadPages(float focusX, float focusY) {
         if (pdfFile == null || renderingHandler == null) {
             return;
         }
 
         // Cancel all current tasks
-        renderingHandler.removeMessages(RenderingHandler.MSG_RENDER_TASK);
+        renderingHandler.cancelRenderingTasks();
         cacheManager.makeANewSet();
 
-        pagesLoader.loadPages();
+        pagesLoader.loadPages(focusX, focusY);
         redraw();
     }
 
+    /** Set backend which opens and renders documents, applies to the next load */
+    public void setRenderBackend(RenderBackend renderBackend) {
+        this.renderBackend = renderBackend;
+    }
+
+    public RenderBackend getRenderBackend() {
+        return renderBackend;
+    }
+
+    private void setRenderingConfig(RenderingConfig renderingConfig) {
+        this.renderingConfig = renderingConfig;
+        adaptivePartSize = new AdaptivePartSize(renderingConfig, getResources().getDisplayMetrics().density);
+        cacheManager.setCacheSizes(renderingConfig.getCacheSize(), renderingConfig.getThumbnailsCacheSize());
+    }
+
+    public RenderingConfig getRenderingConfig() {
+        return renderingConfig;
+    }
+
+    /** @return width and height of rendered parts in pixels at current zoom */
+    float getPartSize() {
+        return adaptivePartSize.getPartSize(zoom, getWidth(), getHeight());
+    }
+
+    /** @return width and height of rendered parts in pixels at zoom 1, the zoom after a page turn */
+    float getFitPartSize() {
+        return adaptivePartSize.getFitPartSize(getWidth(), getHeight());
+    }
+
+    /** Called on the rendering thread with render time of a part */
+    void onPartRendered(long nanos, int pixels) {
+        adaptivePartSize.onPartRendered(nanos, pixels);
+    }
+
+    /** Set source of page text used by {@link #search(String, OnSearchListener)}, applies to the next load */
+    public void setPageTextProvider(PageTextProvider pageTextProvider) {
+        this.pageTextProvider = pageTextProvider;
+    }
+
+    /**
+     * Search loaded document for a phrase and highlight matches. Results of pages already indexed come first,
+     * others are delivered as indexing continues. Previous search is cancelled.
+     *
+     * @throws IllegalStateException if document is not loaded or page text provider is not set
+     */
+    public void search(String phrase, final OnSearchListener listener) {
+        if (textSearch == null) {
+            throw new IllegalStateException(pdfFile == null
+                    ? "Document is not loaded" : "Page text provider is not set");
+        }
+        clearSearch();
+        searchQuery = textSearch.search(phrase, new OnSearchListener() {
+            @Override
+            public void onSearchResult(SearchResult result) {
+                Path path = new Path();
+                for (RectF rect : result.getRects()) {
+                    path.addRect(rect, Path.Direction.CW);
+                }
+                searchHighlights.put(result.getPage(), path);
+                redraw();
+                if (listener != null) {
+                    listener.onSearchResult(result);
+                }
+            }
+
+            @Override
+            public void onSearchComplete(int pagesWithResults) {
+                if (listener != null) {
+                    listener.onSearchComplete(pagesWithResults);
+                }
+            }
+        });
+    }
+
+    /** Cancel current search and remove its highlights */
+    public void clearSearch() {
+        if (searchQuery != null) {
+            searchQuery.cancel();
+            searchQuery = null;
+        }
+        searchHighlights.clear();
+        redraw();
+    }
+
+    public void setSearchHighlightColor(int color) {
+        searchHighlightPaint.setColor(color);
+        redraw();
+    }
+
+    /** Let long press select text of a page and dragging extend it, applies to the next load */
+    public void setTextSelectionEnabled(boolean textSelectionEnabled) {
+        this.textSelectionEnabled = textSelectionEnabled;
+    }
+
+    public boolean isTextSelectionEnabled() {
+        return textSelectionEnabled;
+    }
+
+    /** @return selected text, or null if nothing is selected */
+    public String getSelectedText() {
+        return textSelection != null ? textSelection.getSelectedText() : null;
+    }
+
+    /** Remove text selection, @return true if there was one */
+    public boolean clearTextSelection() {
+        return textSelection != null && textSelection.clear();
+    }
+
+    public void setSelectionHighlightColor(int color) {
+        selectionHighlightPaint.setColor(color);
+        redraw();
+    }
+
+    /** Start selecting text at a point of the view, @return false if text selection is not available there */
+    boolean startTextSelection(float x, float y) {
+        PointF relative = new PointF();
+        int page = textSelection != null ? pageAtPoint(x, y, relative) : -1;
+        if (page == -1) {
+            return false;
+        }
+        textSelection.start(page, relative.x, relative.y);
+        return true;
+    }
+
+    void extendTextSelection(float x, float y) {
+        PointF relative = new PointF();
+        int page = textSelection != null ? pageAtPoint(x, y, relative) : -1;
+        if (page != -1) {
+            textSelection.extend(page, relative.x, relative.y);
+        }
+    }
+
+    void endTextSelection() {
+        if (textSelection != null) {
+            textSelection.finish();
+        }
+    }
+
+    /**
+     * Find page under a point of the view
+     *
+     * @param outRelative receives the point relative to page size
+     * @return page index, or -1 if there is no document
+     */
+    int pageAtPoint(float x, float y, PointF outRelative) {
+        if (pdfFile == null) {
+            return -1;
+        }
+        float mappedX = -currentXOffset + x;
+        float mappedY = -currentYOffset + y;
+        int page = swipeVertical ? pdfFile.getPageAt(mappedY, mappedX, zoom) : pdfFile.getPageAt(mappedX, mappedY, zoom);
+        SizeF size = pdfFile.getScaledPageSize(page, zoom);
+        if (size.getWidth() <= 0 || size.getHeight() <= 0) {
+            return -1;
+        }
+        float pageX, pageY;
+        if (swipeVertical) {
+            pageX = pdfFile.getSecondaryPageOffset(page, zoom);
+            pageY = pdfFile.getPageOffset(page, zoom);
+        } else {
+            pageY = pdfFile.getSecondaryPageOffset(page, zoom);
+            pageX = pdfFile.getPageOffset(page, zoom);
+        }
+        outRelative.set((mappedX - pageX) / size.getWidth(), (mappedY - pageY) / size.getHeight());
+        return page;
+    }
+
+    /** @return file for search index of loaded document, or null if it cannot be identified */
+    private File searchIndexFile() {
+        if (documentFingerprint == null) {
+            return null;
+        }
+        return new File(new File(getContext().getCacheDir(), "pdfview-search"),
+                Util.sha1Hex(documentFingerprint) + ".idx");
+    }
+
+    /** Load links of given page in the background, if they are not cached yet */
+    void requestLinks(int page) {
+        if (renderingHandler == null || pendingLinks.get(page) || pageLinks.get(page) != null) {
+            return;
+        }
+        pendingLinks.put(page, true);
+        renderingHandler.addLinksTask(page);
+    }
+
+    /** @param links links of the page, null if they could not be loaded */
+    void onLinksLoaded(PdfFile pdfFile, int page, @Nullable PageLinks links) {
+        if (pdfFile != this.pdfFile) {
+            // loaded for a document which was recycled since
+            return;
+        }
+        pendingLinks.delete(page);
+        if (links != null) {
+            pageLinks.put(page, links);
+        }
+    }
+
+    /** @return links of given page, loaded on the calling thread if they are not cached yet */
+    PageLinks getPageLinks(int page) {
+        PageLinks links = pageLinks.get(page);
+        if (links == null) {
+            links = PageLinks.load(pdfFile, page);
+            if (links == null) {
+                // page failed to open, try again on the next tap
+                return PageLinks.EMPTY;
+            }
+            pageLinks.put(page, links);
+        }
+        return links;
+    }
+
+    /** Called when the PDF passes a loading stage */
+    void loadProgress(OnLoadProgressListener.Stage stage) {
+        callbacks.callOnLoadProgress(stage);
+    }
+
     /** Called when the PDF is loaded */
     void loadComplete(PdfFile pdfFile) {
         state = State.LOADED;
+        loadReport.mark(LoadReport.Stage.LOAD_COMPLETE);
 
         this.pdfFile = pdfFile;
 
@@ -766,11 +1433,41 @@ public class PDFView extends RelativeLayout {
 
         dragPinchManager.enable();
 
+        if (pageTextProvider != null) {
+            // index in the background, so the first search has most of the document ready
+            textSearch = new TextSearch(pdfFile, pageTextProvider, searchIndexFile(), documentFingerprint);
+            textSearch.start();
+        }
+        if (pageTextProvider != null && textSelectionEnabled) {
+            textSelection = new TextSelection(this, pdfFile, pageTextProvider);
+        }
+
         callbacks.callOnLoadComplete(pdfFile.getPagesCount());
 
         jumpTo(defaultPage, false);
     }
 
+    /** Show document decoded and partially rendered by {@link PdfPreloader} */
+    private void adoptPreloaded(PdfPreloader.Result preloaded) {
+        for (PagePart thumbnail : preloaded.thumbnails) {
+            cacheManager.cacheThumbnail(thumbnail);
+        }
+        for (PagePart part : preloaded.parts) {
+            cacheManager.cachePart(part);
+        }
+        loadProgress(OnLoadProgressListener.Stage.OPENED);
+        loadProgress(OnLoadProgressListener.Stage.SIZES_MEASURED);
+        loadProgress(OnLoadProgressListener.Stage.LAYOUT_READY);
+        loadComplete(preloaded.pdfFile);
+
+        // parts of the first screen are already in cache, nothing will call onBitmapRendered for them
+        if (state == State.LOADED && !preloaded.parts.isEmpty()) {
+            state = State.SHOWN;
+            callbacks.callOnRender(pdfFile.getPagesCount());
+            redraw();
+        }
+    }
+
     void loadError(Throwable t) {
         state = State.ERROR;
         // store reference, because callbacks will be cleared in recycle() method
@@ -795,11 +1492,21 @@ public class PDFView extends RelativeLayout {
      * @param part The created PagePart.
      */
     public void onBitmapRendered(PagePart part) {
+        frameMonitor.onPartRendered();
         // when it is first rendered part
         if (state == State.LOADED) {
             state = State.SHOWN;
             callbacks.callOnRender(pdfFile.getPagesCount());
         }
+        if (loadReport != null) {
+            loadReport.mark(LoadReport.Stage.FIRST_PART_RENDERED);
+        }
+
+        if (pagedMode && (part.getPage() < getFirstRetainedPage() || part.getPage() > getLastRetainedPage())) {
+            // page was turned away while the part was rendered
+            part.getRenderedBitmap().recycle();
+            return;
+        }
 
         if (part.isThumbnail()) {
             cacheManager.cacheThumbnail(part);
@@ -822,6 +1529,15 @@ public class PDFView extends RelativeLayout {
      * @param moveHandle whether to move scroll handle or not
      */
     public void moveTo(float offsetX, float offsetY, boolean moveHandle) {
+        FrameStats.Motion motion;
+        if (animationManager.isPageFlinging()) {
+            motion = FrameStats.Motion.PAGE_TURN;
+        } else if (animationManager.isFlinging()) {
+            motion = FrameStats.Motion.FLING;
+        } else {
+            motion = FrameStats.Motion.SCROLL;
+        }
+        frameMonitor.onMotion(motion);
         if (swipeVertical) {
             // Check X offset
             float scaledPageWidth = toCurrentScale(pdfFile.getMaxPageWidth());
@@ -953,9 +1669,9 @@ public class PDFView extends RelativeLayout {
             return SnapEdge.NONE;
         }
         float currentOffset = swipeVertical ? currentYOffset : currentXOffset;
-        float offset = -pdfFile.getPageOffset(page, zoom);
+        float offset = -pdfFile.getSpreadOffset(page, zoom);
         int length = swipeVertical ? getHeight() : getWidth();
-        float pageLength = pdfFile.getPageLength(page, zoom);
+        float pageLength = pdfFile.getSpreadLength(page, zoom);
 
         if (length >= pageLength) {
             return SnapEdge.CENTER;
@@ -972,10 +1688,10 @@ public class PDFView extends RelativeLayout {
      * Get the offset to move to in order to snap to the page
      */
     float snapOffsetForPage(int pageIndex, SnapEdge edge) {
-        float offset = pdfFile.getPageOffset(pageIndex, zoom);
+        float offset = pdfFile.getSpreadOffset(pageIndex, zoom);
 
         float length = swipeVertical ? getHeight() : getWidth();
-        float pageLength = pdfFile.getPageLength(pageIndex, zoom);
+        float pageLength = pdfFile.getSpreadLength(pageIndex, zoom);
 
         if (edge == SnapEdge.CENTER) {
             offset = offset - length / 2f + pageLength / 2f;
@@ -1000,11 +1716,11 @@ public class PDFView extends RelativeLayout {
     }
 
     /**
-     * @return true if single page fills the entire screen in the scrolling direction
+     * @return true if single page, or spread, fills the entire screen in the scrolling direction
      */
     public boolean pageFillsScreen() {
-        float start = -pdfFile.getPageOffset(currentPage, zoom);
-        float end = start - pdfFile.getPageLength(currentPage, zoom);
+        float start = -pdfFile.getSpreadOffset(currentPage, zoom);
+        float end = start - pdfFile.getSpreadLength(currentPage, zoom);
         if (isSwipeVertical()) {
             return start > currentYOffset && end < currentYOffset - getHeight();
         } else {
@@ -1028,6 +1744,7 @@ public class PDFView extends RelativeLayout {
      */
     public void zoomTo(float zoom) {
         this.zoom = zoom;
+        frameMonitor.onMotion(FrameStats.Motion.ZOOM);
     }
 
     /**
@@ -1133,6 +1850,14 @@ public class PDFView extends RelativeLayout {
         animationManager.startZoomAnimation(getWidth() / 2, getHeight() / 2, zoom, scale);
     }
 
+    private void setDecodingExecutor(Executor decodingExecutor) {
+        this.decodingExecutor = decodingExecutor;
+    }
+
+    private void setLoadTimeout(long loadTimeout) {
+        this.loadTimeout = loadTimeout;
+    }
+
     private void setScrollHandle(ScrollHandle scrollHandle) {
         this.scrollHandle = scrollHandle;
     }
@@ -1209,6 +1934,9 @@ public class PDFView extends RelativeLayout {
 
     public void enableAntialiasing(boolean enableAntialiasing) {
         this.enableAntialiasing = enableAntialiasing;
+        if (pageDisplayLists != null) {
+            pageDisplayLists.clear();
+        }
     }
 
     public int getSpacingPx() {
@@ -1227,6 +1955,36 @@ public class PDFView extends RelativeLayout {
         return pageFling;
     }
 
+    private void setPagedMode(boolean pagedMode) {
+        this.pagedMode = pagedMode;
+    }
+
+    /**
+     * In paged mode only the current page or spread and one neighbor on each side are drawn, rendered and cached.
+     * Neighbors are rendered whole at zoom 1, so a page turn shows finished pages.
+     */
+    public boolean isPagedMode() {
+        return pagedMode;
+    }
+
+    /** First page kept in render and cache state, the first page of the previous spread in paged mode */
+    int getFirstRetainedPage() {
+        if (!pagedMode) {
+            return 0;
+        }
+        int start = pdfFile.getSpreadStart(currentPage);
+        return start > 0 ? pdfFile.getSpreadStart(start - 1) : start;
+    }
+
+    /** Last page kept in render and cache state, the last page of the next spread in paged mode */
+    int getLastRetainedPage() {
+        if (!pagedMode) {
+            return pdfFile.getPagesCount() - 1;
+        }
+        int end = pdfFile.getSpreadEnd(currentPage);
+        return end < pdfFile.getPagesCount() - 1 ? pdfFile.getSpreadEnd(end + 1) : end;
+    }
+
     private void setSpacing(int spacingDp) {
         this.spacingPx = Util.getDP(getContext(), spacingDp);
     }
@@ -1251,6 +2009,14 @@ public class PDFView extends RelativeLayout {
         return fitEachPage;
     }
 
+    private void setSpreadMode(SpreadMode spreadMode) {
+        this.spreadMode = spreadMode;
+    }
+
+    public SpreadMode getSpreadMode() {
+        return spreadMode;
+    }
+
     public boolean isPageSnap() {
         return pageSnap;
     }
@@ -1263,6 +2029,38 @@ public class PDFView extends RelativeLayout {
         return renderDuringScale;
     }
 
+    public void setPinchSnapshotEnabled(boolean pinchSnapshotEnabled) {
+        this.pinchSnapshotEnabled = pinchSnapshotEnabled;
+        if (!pinchSnapshotEnabled) {
+            releasePinchSnapshot();
+        }
+    }
+
+    public boolean isPinchSnapshotEnabled() {
+        return pinchSnapshotEnabled;
+    }
+
+    /**
+     * Measure frames while document is scrolled, flung or zoomed. Frame durations and areas
+     * of the screen where parts were missing are collected into histograms, see {@link #getFrameStats}.
+     */
+    public void setFrameMonitorEnabled(boolean enabled) {
+        frameMonitor.setEnabled(enabled, getDisplay());
+    }
+
+    public boolean isFrameMonitorEnabled() {
+        return frameMonitor.isEnabled();
+    }
+
+    /** @return copy of frames collected for given motion since monitor was enabled or reset */
+    public FrameStats getFrameStats(FrameStats.Motion motion) {
+        return frameMonitor.getStats(motion);
+    }
+
+    public void resetFrameStats() {
+        frameMonitor.reset();
+    }
+
     /** Returns null if document is not loaded */
     public PdfDocument.Meta getDocumentMeta() {
         if (pdfFile == null) {
@@ -1287,6 +2085,32 @@ public class PDFView extends RelativeLayout {
         return pdfFile.getPageLinks(page);
     }
 
+    /**
+     * Close opened documents which are kept for fast reopening, but are not shown by any view.
+     * Call it e.g. from {@link android.content.ComponentCallbacks2#onTrimMemory(int)}.
+     */
+    public static void clearDocumentCache() {
+        DocumentCache.getInstance().clear();
+    }
+
+    /**
+     * Load native libraries in the background, so the first document opens faster.
+     * Call it early, e.g. in {@link android.app.Application#onCreate()}. Safe to call many times.
+     */
+    public static void warmUp(Context context) {
+        final PdfiumBackend backend = PdfiumBackend.getInstance();
+        if (backend.isInitialized()) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        DecodingTask.getDefaultExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                backend.getCore(appContext);
+            }
+        });
+    }
+
     /** Use an asset file as the pdf source */
     public Configurator fromAsset(String assetName) {
         return new Configurator(new AssetSource(assetName));
@@ -1307,7 +2131,7 @@ public class PDFView extends RelativeLayout {
         return new Configurator(new ByteArraySource(bytes));
     }
 
-    /** Use stream as the pdf source. Stream will be written to bytearray, because native code does not support Java Streams */
+    /** Use stream as the pdf source. Stream will be written to temporary file, because native code does not support Java Streams */
     public Configurator fromStream(InputStream stream) {
         return new Configurator(new InputStreamSource(stream));
     }
@@ -1335,6 +2159,10 @@ public class PDFView extends RelativeLayout {
 
         private OnLoadCompleteListener onLoadCompleteListener;
 
+        private OnLoadProgressListener onLoadProgressListener;
+
+        private OnLoadReportListener onLoadReportListener;
+
         private OnErrorListener onErrorListener;
 
         private OnPageChangeListener onPageChangeListener;
@@ -1351,6 +2179,16 @@ public class PDFView extends RelativeLayout {
 
         private LinkHandler linkHandler = new DefaultLinkHandler(PDFView.this);
 
+        private RenderBackend renderBackend = PdfiumBackend.getInstance();
+
+        private RenderingConfig renderingConfig = RenderingConfig.defaults();
+
+        private PageTextProvider pageTextProvider;
+
+        private boolean enableTextSelection = false;
+
+        private OnTextSelectionListener onTextSelectionListener;
+
         private int defaultPage = 0;
 
         private boolean swipeHorizontal = false;
@@ -1371,12 +2209,22 @@ public class PDFView extends RelativeLayout {
 
         private boolean fitEachPage = false;
 
+        private SpreadMode spreadMode = SpreadMode.NONE;
+
         private boolean pageFling = false;
 
         private boolean pageSnap = false;
 
+        private boolean pagedMode = false;
+
         private boolean nightMode = false;
 
+        private boolean renderNightMode = false;
+
+        private Executor executor = null;
+
+        private long loadTimeout = 0;
+
         private Configurator(DocumentSource documentSource) {
             this.documentSource = documentSource;
         }
@@ -1416,6 +2264,16 @@ public class PDFView extends RelativeLayout {
             return this;
         }
 
+        public Configurator onLoadProgress(OnLoadProgressListener onLoadProgressListener) {
+            this.onLoadProgressListener = onLoadProgressListener;
+            return this;
+        }
+
+        public Configurator onLoadReport(OnLoadReportListener onLoadReportListener) {
+            this.onLoadReportListener = onLoadReportListener;
+            return this;
+        }
+
         public Configurator onPageScroll(OnPageScrollListener onPageScrollListener) {
             this.onPageScrollListener = onPageScrollListener;
             return this;
@@ -1451,6 +2309,35 @@ public class PDFView extends RelativeLayout {
             return this;
         }
 
+        /** Long press selects text of a page and dragging extends the selection, needs {@link #textProvider} */
+        public Configurator enableTextSelection(boolean enableTextSelection) {
+            this.enableTextSelection = enableTextSelection;
+            return this;
+        }
+
+        public Configurator onTextSelection(OnTextSelectionListener onTextSelectionListener) {
+            this.onTextSelectionListener = onTextSelectionListener;
+            return this;
+        }
+
+        /** Backend which opens and renders the document, pdfium by default */
+        public Configurator backend(RenderBackend renderBackend) {
+            this.renderBackend = renderBackend;
+            return this;
+        }
+
+        /** Sizes of parts, thumbnails and caches of this view, values of {@link Constants} by default */
+        public Configurator renderingConfig(RenderingConfig renderingConfig) {
+            this.renderingConfig = renderingConfig;
+            return this;
+        }
+
+        /** Source of page text, required by {@link PDFView#search(String, OnSearchListener)} */
+        public Configurator textProvider(PageTextProvider pageTextProvider) {
+            this.pageTextProvider = pageTextProvider;
+            return this;
+        }
+
         public Configurator linkHandler(LinkHandler linkHandler) {
             this.linkHandler = linkHandler;
             return this;
@@ -1501,6 +2388,12 @@ public class PDFView extends RelativeLayout {
             return this;
         }
 
+        /** Show pages in spreads side by side, like a magazine. Pages of a spread share the view width */
+        public Configurator spreadMode(SpreadMode spreadMode) {
+            this.spreadMode = spreadMode;
+            return this;
+        }
+
         public Configurator pageSnap(boolean pageSnap) {
             this.pageSnap = pageSnap;
             return this;
@@ -1511,11 +2404,35 @@ public class PDFView extends RelativeLayout {
             return this;
         }
 
+        /** Show one page or spread at a time, turns on auto spacing, page snap and page fling */
+        public Configurator pagedMode(boolean pagedMode) {
+            this.pagedMode = pagedMode;
+            return this;
+        }
+
         public Configurator nightMode(boolean nightMode) {
             this.nightMode = nightMode;
             return this;
         }
 
+        /** Invert night mode colors once on the rendering thread instead of on every draw */
+        public Configurator renderNightMode(boolean renderNightMode) {
+            this.renderNightMode = renderNightMode;
+            return this;
+        }
+
+        /** Executor to decode document on, by default a shared pool is used */
+        public Configurator executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /** Fail loading with {@link java.util.concurrent.TimeoutException} if it takes longer, 0 for no timeout */
+        public Configurator loadTimeout(long loadTimeoutMillis) {
+            this.loadTimeout = loadTimeoutMillis;
+            return this;
+        }
+
         public Configurator disableLongpress() {
             PDFView.this.dragPinchManager.disableLongpress();
             return this;
@@ -1528,6 +2445,8 @@ public class PDFView extends RelativeLayout {
             }
             PDFView.this.recycle();
             PDFView.this.callbacks.setOnLoadComplete(onLoadCompleteListener);
+            PDFView.this.callbacks.setOnLoadProgress(onLoadProgressListener);
+            PDFView.this.callbacks.setOnLoadReport(onLoadReportListener);
             PDFView.this.callbacks.setOnError(onErrorListener);
             PDFView.this.callbacks.setOnDraw(onDrawListener);
             PDFView.this.callbacks.setOnDrawAll(onDrawAllListener);
@@ -1538,7 +2457,13 @@ public class PDFView extends RelativeLayout {
             PDFView.this.callbacks.setOnLongPress(onLongPressListener);
             PDFView.this.callbacks.setOnPageError(onPageErrorListener);
             PDFView.this.callbacks.setLinkHandler(linkHandler);
+            PDFView.this.callbacks.setOnTextSelection(onTextSelectionListener);
+            PDFView.this.setRenderBackend(renderBackend);
+            PDFView.this.setRenderingConfig(renderingConfig);
+            PDFView.this.setPageTextProvider(pageTextProvider);
+            PDFView.this.setTextSelectionEnabled(enableTextSelection);
             PDFView.this.setSwipeEnabled(enableSwipe);
+            PDFView.this.setRenderNightMode(renderNightMode);
             PDFView.this.setNightMode(nightMode);
             PDFView.this.enableDoubletap(enableDoubletap);
             PDFView.this.setDefaultPage(defaultPage);
@@ -1547,11 +2472,15 @@ public class PDFView extends RelativeLayout {
             PDFView.this.setScrollHandle(scrollHandle);
             PDFView.this.enableAntialiasing(antialiasing);
             PDFView.this.setSpacing(spacing);
-            PDFView.this.setAutoSpacing(autoSpacing);
+            PDFView.this.setAutoSpacing(autoSpacing || pagedMode);
             PDFView.this.setPageFitPolicy(pageFitPolicy);
             PDFView.this.setFitEachPage(fitEachPage);
-            PDFView.this.setPageSnap(pageSnap);
-            PDFView.this.setPageFling(pageFling);
+            PDFView.this.setSpreadMode(spreadMode);
+            PDFView.this.setPageSnap(pageSnap || pagedMode);
+            PDFView.this.setPageFling(pageFling || pagedMode);
+            PDFView.this.setPagedMode(pagedMode);
+            PDFView.this.setDecodingExecutor(executor);
+            PDFView.this.setLoadTimeout(loadTimeout);
 
             if (pageNumbers != null) {
                 PDFView.this.load(documentSource, password, pageNumbers);
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.graphics.Canvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+import android.util.SparseArray;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * Recorded drawing of page parts, one {@link RenderNode} per page. A page is recorded again only
+ * when its cached parts or zoom change, otherwise scrolling just draws the recorded list at a new position.
+ * Lists of pages which were not drawn in the last frame are discarded.
+ */
+@RequiresApi(Build.VERSION_CODES.Q)
+class PageDisplayLists {
+
+    static class PageList {
+        private final RenderNode node;
+        private int version = -1;
+        private float zoom;
+        private boolean hasContent;
+        private int frame;
+
+        PageList(int page) {
+            node = new RenderNode("PDF page " + page);
+        }
+
+        /** @return true if list was recorded with given cache version, zoom and page size */
+        boolean isValid(int version, float zoom, int width, int height) {
+            return this.version == version && this.zoom == zoom
+                    && node.getWidth() == width && node.getHeight() == height && node.hasDisplayList();
+        }
+
+        Canvas beginRecording(int width, int height) {
+            node.setPosition(0, 0, width, height);
+            return node.beginRecording(width, height);
+        }
+
+        void endRecording(int version, float zoom, boolean hasContent) {
+            node.endRecording();
+            this.version = version;
+            this.zoom = zoom;
+            this.hasContent = hasContent;
+        }
+
+        /** Draw on a hardware accelerated canvas, already moved to the page */
+        void draw(Canvas canvas) {
+            canvas.drawRenderNode(node);
+        }
+
+        /** @return true if any part was recorded */
+        boolean hasContent() {
+            return hasContent;
+        }
+    }
+
+    private final SparseArray<PageList> lists = new SparseArray<>();
+
+    private int frame = 0;
+
+    void startFrame() {
+        frame++;
+    }
+
+    PageList get(int page) {
+        PageList list = lists.get(page);
+        if (list == null) {
+            list = new PageList(page);
+            lists.put(page, list);
+        }
+        list.frame = frame;
+        return list;
+    }
+
+    /** Discard lists of pages not drawn in the current frame */
+    void endFrame() {
+        for (int i = lists.size() - 1; i >= 0; i--) {
+            PageList list = lists.valueAt(i);
+            if (list.frame != frame) {
+                list.node.discardDisplayList();
+                lists.removeAt(i);
+            }
+        }
+    }
+
+    /** Discard all lists, e.g. after paint used for recording changed */
+    void clear() {
+        for (int i = 0; i < lists.size(); i++) {
+            lists.valueAt(i).node.discardDisplayList();
+        }
+        lists.clear();
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import com.github.barteksc.pdfviewer.text.PageText;
+
+/**
+ * Glyph boxes of a single page kept in primitive arrays, with a uniform grid over the page
+ * so the glyph under a finger is found by looking at few cells instead of all glyphs.
+ */
+class PageGlyphs {
+
+    static final PageGlyphs EMPTY = new PageGlyphs("", new float[0]);
+
+    /** Number of grid cells along each side of the page */
+    private static final int GRID_SIZE = 32;
+
+    /** Vertical distance counts more, so a point between lines picks the glyph of the closer line */
+    private static final float VERTICAL_WEIGHT = 2f;
+
+    private final String text;
+
+    /** Left, top, right and bottom of every glyph, relative to page size */
+    private final float[] bounds;
+
+    /** Glyphs of cell i are cellGlyphs[cellStart[i]] until cellGlyphs[cellStart[i + 1]] */
+    private final int[] cellStart;
+    private final int[] cellGlyphs;
+
+    private PageGlyphs(String text, float[] bounds) {
+        this.text = text;
+        this.bounds = bounds;
+        int glyphs = bounds.length / 4;
+
+        cellStart = new int[GRID_SIZE * GRID_SIZE + 1];
+        for (int i = 0; i < glyphs; i++) {
+            if (isEmpty(i)) {
+                continue;
+            }
+            for (int row = cell(bounds[i * 4 + 1]); row <= cell(bounds[i * 4 + 3]); row++) {
+                for (int col = cell(bounds[i * 4]); col <= cell(bounds[i * 4 + 2]); col++) {
+                    cellStart[row * GRID_SIZE + col + 1]++;
+                }
+            }
+        }
+        for (int i = 1; i < cellStart.length; i++) {
+            cellStart[i] += cellStart[i - 1];
+        }
+        cellGlyphs = new int[cellStart[cellStart.length - 1]];
+        int[] fill = new int[GRID_SIZE * GRID_SIZE];
+        for (int i = 0; i < glyphs; i++) {
+            if (isEmpty(i)) {
+                continue;
+            }
+            for (int row = cell(bounds[i * 4 + 1]); row <= cell(bounds[i * 4 + 3]); row++) {
+                for (int col = cell(bounds[i * 4]); col <= cell(bounds[i * 4 + 2]); col++) {
+                    int c = row * GRID_SIZE + col;
+                    cellGlyphs[cellStart[c] + fill[c]++] = i;
+                }
+            }
+        }
+    }
+
+    /** Build glyph index of page text, called on a background thread */
+    static PageGlyphs create(PageText pageText) {
+        if (pageText == null || !pageText.hasCharBounds() || pageText.getText().isEmpty()) {
+            return EMPTY;
+        }
+        String text = pageText.getText();
+        float[] bounds = new float[text.length() * 4];
+        RectF charBounds = new RectF();
+        for (int i = 0; i < text.length(); i++) {
+            pageText.getCharBounds(i, charBounds);
+            charBounds.sort();
+            bounds[i * 4] = charBounds.left;
+            bounds[i * 4 + 1] = charBounds.top;
+            bounds[i * 4 + 2] = charBounds.right;
+            bounds[i * 4 + 3] = charBounds.bottom;
+        }
+        return new PageGlyphs(text, bounds);
+    }
+
+    private static int cell(float relative) {
+        return Math.max(0, Math.min(GRID_SIZE - 1, (int) (relative * GRID_SIZE)));
+    }
+
+    private boolean isEmpty(int glyph) {
+        return bounds[glyph * 4] >= bounds[glyph * 4 + 2] || bounds[glyph * 4 + 1] >= bounds[glyph * 4 + 3];
+    }
+
+    int getGlyphCount() {
+        return bounds.length / 4;
+    }
+
+    /** @return approximate memory used by this object, in bytes */
+    int getByteSize() {
+        return text.length() * 2 + bounds.length * 4 + (cellStart.length + cellGlyphs.length) * 4;
+    }
+
+    /**
+     * Find glyph closest to a point, checking grid cells in rings around the point
+     * until no closer glyph can be found further away.
+     *
+     * @return glyph index, or -1 if page has no glyphs
+     */
+    int glyphAt(float x, float y) {
+        int centerCol = cell(x), centerRow = cell(y);
+        int best = -1;
+        float bestDistance = Float.MAX_VALUE;
+        for (int ring = 0; ring < GRID_SIZE; ring++) {
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                if (row < 0 || row >= GRID_SIZE) {
+                    continue;
+                }
+                boolean edgeRow = row == centerRow - ring || row == centerRow + ring;
+                for (int col = centerCol - ring; col <= centerCol + ring; col += edgeRow || ring == 0 ? 1 : 2 * ring) {
+                    if (col >= 0 && col < GRID_SIZE) {
+                        int c = row * GRID_SIZE + col;
+                        for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                            int glyph = cellGlyphs[i];
+                            float distance = distance(glyph, x, y);
+                            // lower index wins ties, so the glyph of a duplicated cell is stable
+                            if (distance < bestDistance || (distance == bestDistance && glyph < best)) {
+                                best = glyph;
+                                bestDistance = distance;
+                            }
+                        }
+                    }
+                }
+            }
+            // cells of the next ring are at least `ring` cells away from the point
+            if (best != -1 && bestDistance <= (float) ring / GRID_SIZE) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private float distance(int glyph, float x, float y) {
+        float dx = Math.max(0, Math.max(bounds[glyph * 4] - x, x - bounds[glyph * 4 + 2]));
+        float dy = Math.max(0, Math.max(bounds[glyph * 4 + 1] - y, y - bounds[glyph * 4 + 3]));
+        return (float) Math.hypot(dx, dy * VERTICAL_WEIGHT);
+    }
+
+    /** @return index of the first glyph of the word containing given glyph */
+    int wordStart(int glyph) {
+        while (glyph > 0 && isWordChar(glyph - 1)) {
+            glyph--;
+        }
+        return glyph;
+    }
+
+    /** @return index after the last glyph of the word containing given glyph */
+    int wordEnd(int glyph) {
+        if (!isWordChar(glyph)) {
+            return glyph + 1;
+        }
+        while (glyph < text.length() && isWordChar(glyph)) {
+            glyph++;
+        }
+        return glyph;
+    }
+
+    private boolean isWordChar(int glyph) {
+        return Character.isLetterOrDigit(text.charAt(glyph));
+    }
+
+    String getText(int start, int end) {
+        return text.substring(start, end);
+    }
+
+    /** Add rectangles of glyphs from start until end to a path, joining glyphs of a line */
+    void addSelectionPath(int start, int end, Path out) {
+        RectF line = null;
+        for (int i = start; i < end; i++) {
+            if (isEmpty(i)) {
+                continue;
+            }
+            float top = bounds[i * 4 + 1], bottom = bounds[i * 4 + 3];
+            if (line != null && top < line.bottom && bottom > line.top) {
+                line.union(bounds[i * 4], top, bounds[i * 4 + 2], bottom);
+            } else {
+                if (line != null) {
+                    out.addRect(line, Path.Direction.CW);
+                }
+                line = new RectF(bounds[i * 4], top, bounds[i * 4 + 2], bottom);
+            }
+        }
+        if (line != null) {
+            out.addRect(line, Path.Direction.CW);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.graphics.RectF;
+
+import androidx.annotation.Nullable;
+
+import com.github.barteksc.pdfviewer.exception.PageRenderingException;
+import com.shockwave.pdfium.PdfDocument;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Links of a single page with bounds relative to page size, sorted by top edge,
+ * so a point is tested against few links after a binary search instead of all of them.
+ */
+class PageLinks {
+
+    static final PageLinks EMPTY = new PageLinks(new PdfDocument.Link[0], new float[0]);
+
+    /** Size of the page links are mapped to, relative bounds have precision of 1 / MAPPING_SIZE */
+    private static final int MAPPING_SIZE = 10000;
+
+    /** Links sorted by top edge */
+    private final PdfDocument.Link[] links;
+
+    /** Left, top, right and bottom of every link, relative to page size */
+    private final float[] bounds;
+
+    /** Height of the tallest link */
+    private final float maxHeight;
+
+    private PageLinks(PdfDocument.Link[] links, float[] bounds) {
+        this.links = links;
+        this.bounds = bounds;
+        float max = 0;
+        for (int i = 0; i < links.length; i++) {
+            max = Math.max(max, bounds[i * 4 + 3] - bounds[i * 4 + 1]);
+        }
+        this.maxHeight = max;
+    }
+
+    /**
+     * Read and map links of a page. Calls native code, so it should be called on a background thread.
+     *
+     * @return links of the page, or null if the page cannot be opened
+     */
+    @Nullable
+    static PageLinks load(PdfFile pdfFile, int page) {
+        // pdfium has no links for a page which is not opened yet, false only means it was opened before
+        try {
+            pdfFile.openPage(page);
+        } catch (PageRenderingException e) {
+            return null;
+        }
+        if (pdfFile.pageHasError(page)) {
+            return null;
+        }
+        List<PdfDocument.Link> pageLinks = pdfFile.getPageLinks(page);
+        if (pageLinks == null || pageLinks.isEmpty()) {
+            return EMPTY;
+        }
+
+        final RectF[] relative = new RectF[pageLinks.size()];
+        Integer[] order = new Integer[pageLinks.size()];
+        for (int i = 0; i < relative.length; i++) {
+            RectF mapped = pdfFile.mapRectToDevice(page, 0, 0, MAPPING_SIZE, MAPPING_SIZE,
+                    pageLinks.get(i).getBounds());
+            mapped.sort();
+            relative[i] = new RectF(mapped.left / MAPPING_SIZE, mapped.top / MAPPING_SIZE,
+                    mapped.right / MAPPING_SIZE, mapped.bottom / MAPPING_SIZE);
+            order[i] = i;
+        }
+        // stable, so overlapping links keep document order
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return Float.compare(relative[i1].top, relative[i2].top);
+            }
+        });
+
+        PdfDocument.Link[] links = new PdfDocument.Link[relative.length];
+        float[] bounds = new float[relative.length * 4];
+        for (int i = 0; i < order.length; i++) {
+            RectF rect = relative[order[i]];
+            links[i] = pageLinks.get(order[i]);
+            bounds[i * 4] = rect.left;
+            bounds[i * 4 + 1] = rect.top;
+            bounds[i * 4 + 2] = rect.right;
+            bounds[i * 4 + 3] = rect.bottom;
+        }
+        return new PageLinks(links, bounds);
+    }
+
+    /**
+     * Find link at given point, relative to page size
+     *
+     * @param outBounds receives relative bounds of found link
+     * @return link or null if there is no link at the point
+     */
+    PdfDocument.Link find(float x, float y, RectF outBounds) {
+        // first link with top below the point, links from there on cannot contain it
+        int low = 0;
+        int high = links.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bounds[mid * 4 + 1] <= y) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // links starting higher than the tallest link cannot reach the point
+        int found = -1;
+        for (int i = low - 1; i >= 0 && bounds[i * 4 + 1] >= y - maxHeight; i--) {
+            if (x >= bounds[i * 4] && x <= bounds[i * 4 + 2] && y <= bounds[i * 4 + 3]) {
+                // of overlapping links the one with the highest top wins, ties keep document order
+                found = i;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        outBounds.set(bounds[found * 4], bounds[found * 4 + 1], bounds[found * 4 + 2], bounds[found * 4 + 3]);
+        return links[found];
+    }
+}
@@ -17,19 +17,20 @@ package com.github.barteksc.pdfviewer;
 
 import android.graphics.RectF;
 
-import com.github.barteksc.pdfviewer.util.Constants;
 import com.github.barteksc.pdfviewer.util.MathUtils;
+import com.github.barteksc.pdfviewer.util.Tracing;
 import com.github.barteksc.pdfviewer.util.Util;
 import com.shockwave.pdfium.util.SizeF;
 
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
-import static com.github.barteksc.pdfviewer.util.Constants.Cache.CACHE_SIZE;
-import static com.github.barteksc.pdfviewer.util.Constants.PRELOAD_OFFSET;
-
 class PagesLoader {
 
+    /** Zoom neighbor pages are rendered at in paged mode, pages fit the screen at it */
+    private static final float NEIGHBOR_ZOOM = 1f;
+
     private PDFView pdfView;
     private int cacheOrder;
     private float xOffset;
@@ -39,9 +40,11 @@ class PagesLoader {
     private float partRenderWidth;
     private float partRenderHeight;
     private final RectF thumbnailRect = new RectF(0, 0, 1, 1);
-    private final int preloadOffset;
+    /** Point of the screen to load parts around first, NaN to load from the top left corner */
+    private float focusX = Float.NaN;
+    private float focusY = Float.NaN;
 
-    private class Holder {
+    class Holder {
         int row;
         int col;
 
@@ -54,7 +57,7 @@ class PagesLoader {
         }
     }
 
-    private class RenderRange {
+    class RenderRange {
         int page;
         GridSize gridSize;
         Holder leftTop;
@@ -78,7 +81,7 @@ class PagesLoader {
         }
     }
 
-    private class GridSize {
+    static class GridSize {
         int rows;
         int cols;
 
@@ -93,31 +96,56 @@ class PagesLoader {
 
     PagesLoader(PDFView pdfView) {
         this.pdfView = pdfView;
-        this.preloadOffset = Util.getDP(pdfView.getContext(), PRELOAD_OFFSET);
     }
 
     private void getPageColsRows(GridSize grid, int pageIndex) {
-        SizeF size = pdfView.pdfFile.getPageSize(pageIndex);
+        getPageColsRows(grid, pdfView.pdfFile.getPageSize(pageIndex), pdfView.getZoom(), pdfView.getPartSize());
+    }
+
+    /** Calculate grid of parts of given size in pixels covering page of given size at given zoom */
+    static void getPageColsRows(GridSize grid, SizeF size, float zoom, float partSize) {
         float ratioX = 1f / size.getWidth();
         float ratioY = 1f / size.getHeight();
-        final float partHeight = (Constants.PART_SIZE * ratioY) / pdfView.getZoom();
-        final float partWidth = (Constants.PART_SIZE * ratioX) / pdfView.getZoom();
+        final float partHeight = (partSize * ratioY) / zoom;
+        final float partWidth = (partSize * ratioX) / zoom;
         grid.rows = MathUtils.ceil(1f / partHeight);
         grid.cols = MathUtils.ceil(1f / partWidth);
     }
 
-    private void calculatePartSize(GridSize grid) {
+    /**
+     * Get page relative bounds of the cell, cells in the last row and column are cropped to the page.
+     * Parts are found in cache by these bounds, so every part must be created with them.
+     */
+    static RectF getCellBounds(int row, int col, float pageRelativePartWidth, float pageRelativePartHeight) {
+        float relX = pageRelativePartWidth * col;
+        float relY = pageRelativePartHeight * row;
+        float relWidth = pageRelativePartWidth;
+        float relHeight = pageRelativePartHeight;
+
+        if (relX + relWidth > 1) {
+            relWidth = 1 - relX;
+        }
+        if (relY + relHeight > 1) {
+            relHeight = 1 - relY;
+        }
+        return new RectF(relX, relY, relX + relWidth, relY + relHeight);
+    }
+
+    private void calculatePartSize(GridSize grid, float partSize) {
         pageRelativePartWidth = 1f / (float) grid.cols;
         pageRelativePartHeight = 1f / (float) grid.rows;
-        partRenderWidth = Constants.PART_SIZE / pageRelativePartWidth;
-        partRenderHeight = Constants.PART_SIZE / pageRelativePartHeight;
+        partRenderWidth = partSize / pageRelativePartWidth;
+        partRenderHeight = partSize / pageRelativePartHeight;
     }
 
 
     /**
      * calculate the render range of each page
      */
-    private List<RenderRange> getRenderRangeList(float firstXOffset, float firstYOffset, float lastXOffset, float lastYOffset) {
+    List<RenderRange> getRenderRangeList(float firstXOffset, float firstYOffset, float lastXOffset, float lastYOffset) {
+        PdfFile pdfFile = pdfView.pdfFile;
+        float zoom = pdfView.getZoom();
+        boolean vertical = pdfView.isSwipeVertical();
 
         float fixedFirstXOffset = -MathUtils.max(firstXOffset, 0);
         float fixedFirstYOffset = -MathUtils.max(firstYOffset, 0);
@@ -125,75 +153,18 @@ class PagesLoader {
         float fixedLastXOffset = -MathUtils.max(lastXOffset, 0);
         float fixedLastYOffset = -MathUtils.max(lastYOffset, 0);
 
-        float offsetFirst = pdfView.isSwipeVertical() ? fixedFirstYOffset : fixedFirstXOffset;
-        float offsetLast = pdfView.isSwipeVertical() ? fixedLastYOffset : fixedLastXOffset;
+        float offsetFirst = vertical ? fixedFirstYOffset : fixedFirstXOffset;
+        float offsetLast = vertical ? fixedLastYOffset : fixedLastXOffset;
+        float secondaryFirst = vertical ? fixedFirstXOffset : fixedFirstYOffset;
+        float secondaryLast = vertical ? fixedLastXOffset : fixedLastYOffset;
 
-        int firstPage = pdfView.pdfFile.getPageAtOffset(offsetFirst, pdfView.getZoom());
-        int lastPage = pdfView.pdfFile.getPageAtOffset(offsetLast, pdfView.getZoom());
-        int pageCount = lastPage - firstPage + 1;
+        int firstPage = pdfFile.getPageAtOffset(offsetFirst, zoom);
+        // any page of the last spread may be visible
+        int lastPage = pdfFile.getSpreadEnd(pdfFile.getPageAtOffset(offsetLast, zoom));
 
         List<RenderRange> renderRanges = new LinkedList<>();
 
         for (int page = firstPage; page <= lastPage; page++) {
-            RenderRange range = new RenderRange();
-            range.page = page;
-
-            float pageFirstXOffset, pageFirstYOffset, pageLastXOffset, pageLastYOffset;
-            if (page == firstPage) {
-                pageFirstXOffset = fixedFirstXOffset;
-                pageFirstYOffset = fixedFirstYOffset;
-                if (pageCount == 1) {
-                    pageLastXOffset = fixedLastXOffset;
-                    pageLastYOffset = fixedLastYOffset;
-                } else {
-                    float pageOffset = pdfView.pdfFile.getPageOffset(page, pdfView.getZoom());
-                    SizeF pageSize = pdfView.pdfFile.getScaledPageSize(page, pdfView.getZoom());
-                    if (pdfView.isSwipeVertical()) {
-                        pageLastXOffset = fixedLastXOffset;
-                        pageLastYOffset = pageOffset + pageSize.getHeight();
-                    } else {
-                        pageLastYOffset = fixedLastYOffset;
-                        pageLastXOffset = pageOffset + pageSize.getWidth();
-                    }
-                }
-            } else if (page == lastPage) {
-                float pageOffset = pdfView.pdfFile.getPageOffset(page, pdfView.getZoom());
-
-                if (pdfView.isSwipeVertical()) {
-                    pageFirstXOffset = fixedFirstXOffset;
-                    pageFirstYOffset = pageOffset;
-                } else {
-                    pageFirstYOffset = fixedFirstYOffset;
-                    pageFirstXOffset = pageOffset;
-                }
-
-                pageLastXOffset = fixedLastXOffset;
-                pageLastYOffset = fixedLastYOffset;
-
-            } else {
-                float pageOffset = pdfView.pdfFile.getPageOffset(page, pdfView.getZoom());
-                SizeF pageSize = pdfView.pdfFile.getScaledPageSize(page, pdfView.getZoom());
-                if (pdfView.isSwipeVertical()) {
-                    pageFirstXOffset = fixedFirstXOffset;
-                    pageFirstYOffset = pageOffset;
-
-                    pageLastXOffset = fixedLastXOffset;
-                    pageLastYOffset = pageOffset + pageSize.getHeight();
-                } else {
-                    pageFirstXOffset = pageOffset;
-                    pageFirstYOffset = fixedFirstYOffset;
-
-                    pageLastXOffset = pageOffset + pageSize.getWidth();
-                    pageLastYOffset = fixedLastYOffset;
-                }
-            }
-
-            getPageColsRows(range.gridSize, range.page); // get the page's grid size that rows and cols
-            SizeF scaledPageSize = pdfView.pdfFile.getScaledPageSize(range.page, pdfView.getZoom());
-            float rowHeight = scaledPageSize.getHeight() / range.gridSize.rows;
-            float colWidth = scaledPageSize.getWidth() / range.gridSize.cols;
-
-
             // get the page offset int the whole file
             // ---------------------------------------
             // |            |           |            |
@@ -201,21 +172,44 @@ class PagesLoader {
             // |            |           |            |
             // |            |           |            |
             // ---------------------------------------
-            float secondaryOffset = pdfView.pdfFile.getSecondaryPageOffset(page, pdfView.getZoom());
+            float pageOffset = pdfFile.getPageOffset(page, zoom);
+            float secondaryOffset = pdfFile.getSecondaryPageOffset(page, zoom);
+            SizeF scaledPageSize = pdfFile.getScaledPageSize(page, zoom);
+            float pageLength = vertical ? scaledPageSize.getHeight() : scaledPageSize.getWidth();
+            float secondaryLength = vertical ? scaledPageSize.getWidth() : scaledPageSize.getHeight();
+
+            // visible range may end in spacing, or miss one page of a spread
+            if (pageOffset > offsetLast || pageOffset + pageLength < offsetFirst
+                    || secondaryOffset > secondaryLast || secondaryOffset + secondaryLength < secondaryFirst) {
+                continue;
+            }
+
+            RenderRange range = new RenderRange();
+            range.page = page;
+
+            getPageColsRows(range.gridSize, range.page); // get the page's grid size that rows and cols
+            float rowHeight = scaledPageSize.getHeight() / range.gridSize.rows;
+            float colWidth = scaledPageSize.getWidth() / range.gridSize.cols;
+
+            // visible part of the page, relative to its top left corner
+            float first = Math.max(offsetFirst - pageOffset, 0);
+            float last = Math.min(offsetLast - pageOffset, pageLength);
+            float secondFirst = Math.max(secondaryFirst - secondaryOffset, 0);
+            float secondLast = Math.min(secondaryLast - secondaryOffset, secondaryLength);
 
             // calculate the row,col of the point in the leftTop and rightBottom
-            if (pdfView.isSwipeVertical()) {
-                range.leftTop.row = MathUtils.floor(Math.abs(pageFirstYOffset - pdfView.pdfFile.getPageOffset(range.page, pdfView.getZoom())) / rowHeight);
-                range.leftTop.col = MathUtils.floor(MathUtils.min(pageFirstXOffset - secondaryOffset, 0) / colWidth);
+            if (vertical) {
+                range.leftTop.row = MathUtils.floor(first / rowHeight);
+                range.leftTop.col = MathUtils.floor(secondFirst / colWidth);
 
-                range.rightBottom.row = MathUtils.ceil(Math.abs(pageLastYOffset - pdfView.pdfFile.getPageOffset(range.page, pdfView.getZoom())) / rowHeight);
-                range.rightBottom.col = MathUtils.floor(MathUtils.min(pageLastXOffset - secondaryOffset, 0) / colWidth);
+                range.rightBottom.row = MathUtils.ceil(last / rowHeight);
+                range.rightBottom.col = MathUtils.floor(secondLast / colWidth);
             } else {
-                range.leftTop.col = MathUtils.floor(Math.abs(pageFirstXOffset - pdfView.pdfFile.getPageOffset(range.page, pdfView.getZoom())) / colWidth);
-                range.leftTop.row = MathUtils.floor(MathUtils.min(pageFirstYOffset - secondaryOffset, 0) / rowHeight);
+                range.leftTop.col = MathUtils.floor(first / colWidth);
+                range.leftTop.row = MathUtils.floor(secondFirst / rowHeight);
 
-                range.rightBottom.col = MathUtils.floor(Math.abs(pageLastXOffset - pdfView.pdfFile.getPageOffset(range.page, pdfView.getZoom())) / colWidth);
-                range.rightBottom.row = MathUtils.floor(MathUtils.min(pageLastYOffset - secondaryOffset, 0) / rowHeight);
+                range.rightBottom.col = MathUtils.floor(last / colWidth);
+                range.rightBottom.row = MathUtils.floor(secondLast / rowHeight);
             }
 
             renderRanges.add(range);
@@ -224,32 +218,130 @@ class PagesLoader {
         return renderRanges;
     }
 
+    /** @return number of ranges from the index on, including it, with pages of the same spread */
+    private int countSpreadRanges(List<RenderRange> ranges, int index) {
+        PdfFile pdfFile = pdfView.pdfFile;
+        int spread = pdfFile.getSpreadStart(ranges.get(index).page);
+        int count = 0;
+        for (int i = index; i < ranges.size(); i++) {
+            if (pdfFile.getSpreadStart(ranges.get(i).page) == spread) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private void loadVisible() {
         int parts = 0;
-        float scaledPreloadOffset = preloadOffset;
+        int cacheSize = pdfView.getRenderingConfig().getCacheSize();
+        float scaledPreloadOffset = Util.getDP(pdfView.getContext(), pdfView.getRenderingConfig().getPreloadOffset());
         float firstXOffset = -xOffset + scaledPreloadOffset;
         float lastXOffset = -xOffset - pdfView.getWidth() - scaledPreloadOffset;
         float firstYOffset = -yOffset + scaledPreloadOffset;
         float lastYOffset = -yOffset - pdfView.getHeight() - scaledPreloadOffset;
 
         List<RenderRange> rangeList = getRenderRangeList(firstXOffset, firstYOffset, lastXOffset, lastYOffset);
+        if (pdfView.isPagedMode()) {
+            retainRanges(rangeList);
+        }
+
+        if (hasFocus()) {
+            // page under the focus goes first
+            float focusOffset = pdfView.isSwipeVertical()
+                    ? -pdfView.getCurrentYOffset() + focusY : -pdfView.getCurrentXOffset() + focusX;
+            float focusSecondaryOffset = pdfView.isSwipeVertical()
+                    ? -pdfView.getCurrentXOffset() + focusX : -pdfView.getCurrentYOffset() + focusY;
+            int focusPage = pdfView.pdfFile.getPageAt(focusOffset, focusSecondaryOffset, pdfView.getZoom());
+            for (int i = 1; i < rangeList.size(); i++) {
+                if (rangeList.get(i).page == focusPage) {
+                    rangeList.add(0, rangeList.remove(i));
+                    break;
+                }
+            }
+        }
 
         for (RenderRange range : rangeList) {
             loadThumbnail(range.page);
         }
 
-        for (RenderRange range : rangeList) {
-            calculatePartSize(range.gridSize);
-            parts += loadPage(range.page, range.leftTop.row, range.rightBottom.row, range.leftTop.col, range.rightBottom.col, CACHE_SIZE - parts);
-            if (parts >= CACHE_SIZE) {
+        for (int i = 0; i < rangeList.size(); i++) {
+            RenderRange range = rangeList.get(i);
+            calculatePartSize(range.gridSize, pdfView.getPartSize());
+            // pages of a spread are seen together, so they share what is left of the budget
+            int spreadRanges = countSpreadRanges(rangeList, i);
+            int loadable = (cacheSize - parts + spreadRanges - 1) / spreadRanges;
+            parts += loadPage(range.page, range.leftTop.row, range.rightBottom.row, range.leftTop.col, range.rightBottom.col, loadable);
+            if (parts >= cacheSize) {
                 break;
             }
         }
 
+        if (pdfView.isPagedMode() && parts < cacheSize) {
+            loadNeighbors(rangeList, cacheSize - parts);
+        }
+    }
+
+    /** Drop ranges of pages which are not kept in paged mode, the preload offset may reach further */
+    private void retainRanges(List<RenderRange> rangeList) {
+        int firstPage = pdfView.getFirstRetainedPage();
+        int lastPage = pdfView.getLastRetainedPage();
+        Iterator<RenderRange> iterator = rangeList.iterator();
+        while (iterator.hasNext()) {
+            int page = iterator.next().page;
+            if (page < firstPage || page > lastPage) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Render kept pages which are not visible whole at zoom 1, the zoom a page is shown at after a page turn,
+     * so the turn finds all parts in cache. Partly visible neighbors are left to the visible ranges.
+     */
+    private int loadNeighbors(List<RenderRange> rangeList, int nbOfPartsLoadable) {
+        int loaded = 0;
+        GridSize grid = new GridSize();
+        // the size of the current zoom would give a grid the view never uses at zoom 1
+        float partSize = pdfView.getFitPartSize();
+        for (int page = pdfView.getFirstRetainedPage(); page <= pdfView.getLastRetainedPage(); page++) {
+            if (containsPage(rangeList, page)) {
+                continue;
+            }
+            loadThumbnail(page);
+            getPageColsRows(grid, pdfView.pdfFile.getPageSize(page), NEIGHBOR_ZOOM, partSize);
+            calculatePartSize(grid, partSize);
+            for (int row = 0; row < grid.rows; row++) {
+                for (int col = 0; col < grid.cols; col++) {
+                    if (loaded >= nbOfPartsLoadable) {
+                        return loaded;
+                    }
+                    if (loadCell(page, row, col, pageRelativePartWidth, pageRelativePartHeight)) {
+                        loaded++;
+                    }
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static boolean containsPage(List<RenderRange> rangeList, int page) {
+        for (RenderRange range : rangeList) {
+            if (range.page == page) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasFocus() {
+        return !Float.isNaN(focusX) && !Float.isNaN(focusY);
     }
 
     private int loadPage(int page, int firstRow, int lastRow, int firstCol, int lastCol,
                          int nbOfPartsLoadable) {
+        if (hasFocus()) {
+            return loadPageAroundFocus(page, firstRow, lastRow, firstCol, lastCol, nbOfPartsLoadable);
+        }
         int loaded = 0;
         for (int row = firstRow; row <= lastRow; row++) {
             for (int col = firstCol; col <= lastCol; col++) {
@@ -264,30 +356,65 @@ class PagesLoader {
         return loaded;
     }
 
-    private boolean loadCell(int page, int row, int col, float pageRelativePartWidth, float pageRelativePartHeight) {
-
-        float relX = pageRelativePartWidth * col;
-        float relY = pageRelativePartHeight * row;
-        float relWidth = pageRelativePartWidth;
-        float relHeight = pageRelativePartHeight;
-
-        float renderWidth = partRenderWidth;
-        float renderHeight = partRenderHeight;
-        if (relX + relWidth > 1) {
-            relWidth = 1 - relX;
+    /** Load cells in rings of growing distance from the cell under the focus, clamped to the range */
+    private int loadPageAroundFocus(int page, int firstRow, int lastRow, int firstCol, int lastCol,
+                                    int nbOfPartsLoadable) {
+        PdfFile pdfFile = pdfView.pdfFile;
+        float zoom = pdfView.getZoom();
+        float x = -pdfView.getCurrentXOffset() + focusX;
+        float y = -pdfView.getCurrentYOffset() + focusY;
+        if (pdfView.isSwipeVertical()) {
+            x -= pdfFile.getSecondaryPageOffset(page, zoom);
+            y -= pdfFile.getPageOffset(page, zoom);
+        } else {
+            x -= pdfFile.getPageOffset(page, zoom);
+            y -= pdfFile.getSecondaryPageOffset(page, zoom);
         }
-        if (relY + relHeight > 1) {
-            relHeight = 1 - relY;
+        SizeF pageSize = pdfFile.getScaledPageSize(page, zoom);
+        int focusCol = MathUtils.floor(x / (pageRelativePartWidth * pageSize.getWidth()));
+        int focusRow = MathUtils.floor(y / (pageRelativePartHeight * pageSize.getHeight()));
+        focusCol = Math.max(firstCol, Math.min(lastCol, focusCol));
+        focusRow = Math.max(firstRow, Math.min(lastRow, focusRow));
+
+        int maxDistance = Math.max(Math.max(focusRow - firstRow, lastRow - focusRow),
+                Math.max(focusCol - firstCol, lastCol - focusCol));
+        int loaded = 0;
+        for (int distance = 0; distance <= maxDistance; distance++) {
+            int fromRow = Math.max(firstRow, focusRow - distance);
+            int toRow = Math.min(lastRow, focusRow + distance);
+            int fromCol = Math.max(firstCol, focusCol - distance);
+            int toCol = Math.min(lastCol, focusCol + distance);
+            for (int row = fromRow; row <= toRow; row++) {
+                boolean edgeRow = Math.abs(row - focusRow) == distance;
+                // inside rows only have ring cells at both ends
+                int step = edgeRow ? 1 : Math.max(1, 2 * distance);
+                for (int col = edgeRow ? fromCol : focusCol - distance; col <= toCol; col += step) {
+                    if (col < fromCol) {
+                        continue;
+                    }
+                    if (loadCell(page, row, col, pageRelativePartWidth, pageRelativePartHeight)) {
+                        loaded++;
+                    }
+                    if (loaded >= nbOfPartsLoadable) {
+                        return loaded;
+                    }
+                }
+            }
         }
-        renderWidth *= relWidth;
-        renderHeight *= relHeight;
-        RectF pageRelativeBounds = new RectF(relX, relY, relX + relWidth, relY + relHeight);
+        return loaded;
+    }
+
+    private boolean loadCell(int page, int row, int col, float pageRelativePartWidth, float pageRelativePartHeight) {
+        RectF pageRelativeBounds = getCellBounds(row, col, pageRelativePartWidth, pageRelativePartHeight);
+        float renderWidth = partRenderWidth * pageRelativeBounds.width();
+        float renderHeight = partRenderHeight * pageRelativeBounds.height();
 
         if (renderWidth > 0 && renderHeight > 0) {
-            if (!pdfView.cacheManager.upPartIfContained(page, pageRelativeBounds, cacheOrder)) {
+            boolean nightMode = pdfView.isNightModeRendered();
+            if (!pdfView.cacheManager.upPartIfContained(page, pageRelativeBounds, cacheOrder, nightMode)) {
                 pdfView.renderingHandler.addRenderingTask(page, renderWidth, renderHeight,
-                        pageRelativeBounds, false, cacheOrder, pdfView.isBestQuality(),
-                        pdfView.isAnnotationRendering());
+                        pageRelativeBounds, row, col, false, cacheOrder, pdfView.isBestQuality(),
+                        pdfView.isAnnotationRendering(), nightMode);
             }
 
             cacheOrder++;
@@ -297,21 +424,36 @@ class PagesLoader {
     }
 
     private void loadThumbnail(int page) {
+        pdfView.requestLinks(page);
         SizeF pageSize = pdfView.pdfFile.getPageSize(page);
-        float thumbnailWidth = pageSize.getWidth() * Constants.THUMBNAIL_RATIO;
-        float thumbnailHeight = pageSize.getHeight() * Constants.THUMBNAIL_RATIO;
-        if (!pdfView.cacheManager.containsThumbnail(page, thumbnailRect)) {
+        float thumbnailRatio = pdfView.getRenderingConfig().getThumbnailRatio();
+        float thumbnailWidth = pageSize.getWidth() * thumbnailRatio;
+        float thumbnailHeight = pageSize.getHeight() * thumbnailRatio;
+        boolean nightMode = pdfView.isNightModeRendered();
+        if (!pdfView.cacheManager.containsThumbnail(page, thumbnailRect, nightMode)) {
             pdfView.renderingHandler.addRenderingTask(page,
-                    thumbnailWidth, thumbnailHeight, thumbnailRect,
-                    true, 0, pdfView.isBestQuality(), pdfView.isAnnotationRendering());
+                    thumbnailWidth, thumbnailHeight, thumbnailRect, 0, 0,
+                    true, 0, pdfView.isBestQuality(), pdfView.isAnnotationRendering(), nightMode);
         }
     }
 
     void loadPages() {
+        loadPages(Float.NaN, Float.NaN);
+    }
+
+    /** Load parts like {@link #loadPages()}, the ones around given point of the screen first */
+    void loadPages(float focusX, float focusY) {
+        this.focusX = focusX;
+        this.focusY = focusY;
         cacheOrder = 1;
         xOffset = -MathUtils.max(pdfView.getCurrentXOffset(), 0);
         yOffset = -MathUtils.max(pdfView.getCurrentYOffset(), 0);
 
-        loadVisible();
+        Tracing.begin("PDFView: load pages");
+        try {
+            loadVisible();
+        } finally {
+            Tracing.end();
+        }
     }
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.Log;
+
+import com.github.barteksc.pdfviewer.exception.PageRenderingException;
+import com.github.barteksc.pdfviewer.model.PagePart;
+import com.github.barteksc.pdfviewer.util.Tracing;
+
+/**
+ * Renders parts of pages into new bitmaps. Not thread safe, every rendering thread needs its own instance.
+ */
+class PartRenderer {
+
+    private static final String TAG = PartRenderer.class.getName();
+
+    private RectF renderBounds = new RectF();
+    private Rect roundedRenderBounds = new Rect();
+    private Matrix renderMatrix = new Matrix();
+    /** Pixels of the part being inverted, grown as needed */
+    private int[] pixels = new int[0];
+
+    /**
+     * Render part of the page
+     *
+     * @param width  width of the part bitmap
+     * @param height height of the part bitmap
+     * @param bounds page relative bounds of the part
+     * @param nightMode true to invert colors of rendered part
+     * @return rendered part or null if it cannot be rendered
+     */
+    PagePart render(PdfFile pdfFile, int page, float width, float height, RectF bounds, boolean thumbnail,
+                    int cacheOrder, boolean bestQuality, boolean annotationRendering, boolean nightMode)
+            throws PageRenderingException {
+        Tracing.begin("PDFView: open page");
+        try {
+            pdfFile.openPage(page);
+        } finally {
+            Tracing.end();
+        }
+
+        int w = Math.round(width);
+        int h = Math.round(height);
+
+        if (w == 0 || h == 0 || pdfFile.pageHasError(page)) {
+            return null;
+        }
+
+        Bitmap render;
+        try {
+            render = Bitmap.createBitmap(w, h, bestQuality ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565);
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Cannot create bitmap", e);
+            return null;
+        }
+        calculateBounds(w, h, bounds);
+
+        Tracing.begin(thumbnail ? "PDFView: render thumbnail" : "PDFView: render part");
+        try {
+            pdfFile.renderPageBitmap(render, page, roundedRenderBounds, annotationRendering);
+            if (nightMode) {
+                invert(render);
+            }
+        } finally {
+            Tracing.end();
+        }
+
+        return new PagePart(page, render, bounds, thumbnail, cacheOrder, nightMode);
+    }
+
+    /** Invert colors once, so the part can be drawn without a color filter */
+    private void invert(Bitmap bitmap) {
+        int w = bitmap.getWidth();
+        int h = bitmap.getHeight();
+        if (pixels.length < w * h) {
+            pixels = new int[w * h];
+        }
+        bitmap.getPixels(pixels, 0, w, 0, 0, w, h);
+        for (int i = 0, count = w * h; i < count; i++) {
+            pixels[i] ^= 0x00FFFFFF;
+        }
+        bitmap.setPixels(pixels, 0, w, 0, 0, w, h);
+    }
+
+    private void calculateBounds(int width, int height, RectF pageSliceBounds) {
+        renderMatrix.reset();
+        renderMatrix.postTranslate(-pageSliceBounds.left * width, -pageSliceBounds.top * height);
+        renderMatrix.postScale(1 / pageSliceBounds.width(), 1 / pageSliceBounds.height());
+
+        renderBounds.set(0, 0, width, height);
+        renderMatrix.mapRect(renderBounds);
+        renderBounds.round(roundedRenderBounds);
+    }
+}
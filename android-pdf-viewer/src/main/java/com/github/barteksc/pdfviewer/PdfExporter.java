@@ -0,0 +1,491 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.github.barteksc.pdfviewer.backend.PdfiumBackend;
+import com.github.barteksc.pdfviewer.backend.RenderBackend;
+import com.github.barteksc.pdfviewer.listener.OnExportListener;
+import com.github.barteksc.pdfviewer.source.ByteArraySource;
+import com.github.barteksc.pdfviewer.source.CacheableSource;
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+import com.github.barteksc.pdfviewer.util.FitPolicy;
+import com.github.barteksc.pdfviewer.util.SpreadMode;
+import com.shockwave.pdfium.util.Size;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders pages of a document to image files or to a callback, without a view.
+ * Pages are rendered by several workers in parallel, every worker with its own document handle
+ * and a single reused bitmap, so memory doesn't depend on the number of pages. A worker takes
+ * the next page only after the previous one was written or consumed, which slows rendering down
+ * to the pace of a slow consumer.
+ * <p>
+ * Usage:
+ * <pre>
+ * PdfExporter.from(context, new FileSource(file))
+ *     .pageRange(0, 99)
+ *     .dpi(150)
+ *     .toDirectory(outputDir, Bitmap.CompressFormat.PNG, 100)
+ *     .onExport(listener)
+ *     .start();
+ * </pre>
+ */
+public class PdfExporter {
+
+    private static final String TAG = PdfExporter.class.getSimpleName();
+
+    /** PDF page sizes are given in points, 1/72 of an inch */
+    private static final int POINTS_PER_INCH = 72;
+
+    /**
+     * Pages stay opened in pdfium until their document is closed, so a worker reopens its document
+     * after this many pages to keep native memory bounded
+     */
+    private static final int PAGES_PER_DOCUMENT_HANDLE = 50;
+
+    /**
+     * Receives rendered pages on worker threads, possibly out of order. The bitmap is reused
+     * for the next page after this method returns, copy it to keep it.
+     */
+    public interface PageSink {
+        void onPage(int page, Bitmap bitmap) throws IOException;
+    }
+
+    /** Summary of a finished export */
+    public static class Report {
+
+        private final int exportedPages;
+        private final int failedPages;
+        private final long bytesWritten;
+        private final long durationMillis;
+        private final int workers;
+        private final boolean cancelled;
+
+        private Report(int exportedPages, int failedPages, long bytesWritten, long durationMillis, int workers,
+                       boolean cancelled) {
+            this.exportedPages = exportedPages;
+            this.failedPages = failedPages;
+            this.bytesWritten = bytesWritten;
+            this.durationMillis = durationMillis;
+            this.workers = workers;
+            this.cancelled = cancelled;
+        }
+
+        public int getExportedPages() {
+            return exportedPages;
+        }
+
+        public int getFailedPages() {
+            return failedPages;
+        }
+
+        /** @return size of written files, 0 when pages are passed to a {@link PageSink} */
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public float getPagesPerSecond() {
+            return durationMillis > 0 ? exportedPages * 1000f / durationMillis : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d pages (%d failed) in %d ms with %d workers, %.1f pages/s, %d KB%s",
+                    exportedPages, failedPages, durationMillis, workers, getPagesPerSecond(), bytesWritten / 1024,
+                    cancelled ? ", cancelled" : "");
+        }
+    }
+
+    private final Context context;
+    private final DocumentSource documentSource;
+    private final RenderBackend backend;
+    private final String password;
+    private final int[] userPages;
+    private final int firstPage;
+    private final int lastPage;
+    private final int dpi;
+    private final boolean annotationRendering;
+    private final Bitmap.Config bitmapConfig;
+    private final File directory;
+    private final Bitmap.CompressFormat format;
+    private final int quality;
+    private final PageSink pageSink;
+    private final OnExportListener onExportListener;
+    private final int workers;
+    /** Source can be opened again, by more workers and after {@link #PAGES_PER_DOCUMENT_HANDLE} pages */
+    private final boolean reopenable;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicInteger nextPage = new AtomicInteger();
+    private final AtomicInteger exportedPages = new AtomicInteger();
+    private final AtomicInteger failedPages = new AtomicInteger();
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    /** Progress is posted once per main thread message, however many pages finished meanwhile */
+    private final AtomicBoolean progressPosted = new AtomicBoolean();
+    private long startTime;
+
+    private PdfExporter(Builder builder) {
+        context = builder.context;
+        documentSource = builder.documentSource;
+        backend = builder.backend;
+        password = builder.password;
+        userPages = builder.pageNumbers;
+        firstPage = builder.firstPage;
+        lastPage = builder.lastPage;
+        dpi = builder.dpi;
+        annotationRendering = builder.annotationRendering;
+        bitmapConfig = builder.bitmapConfig;
+        directory = builder.directory;
+        format = builder.format;
+        quality = builder.quality;
+        pageSink = builder.pageSink;
+        onExportListener = builder.onExportListener;
+        // other sources cannot be opened more than once
+        reopenable = documentSource instanceof CacheableSource || documentSource instanceof ByteArraySource;
+        workers = reopenable ? builder.workers : 1;
+    }
+
+    public static Builder from(Context context, DocumentSource documentSource) {
+        return new Builder(context, documentSource);
+    }
+
+    /** Stop taking new pages, pages being rendered are finished and the export is reported as cancelled */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    private void start() {
+        startTime = SystemClock.elapsedRealtime();
+        nextPage.set(Math.max(0, firstPage));
+        runningWorkers.set(workers);
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        r.run();
+                    }
+                }, "PDF export " + count.incrementAndGet());
+            }
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(new Worker());
+        }
+        executor.shutdown();
+    }
+
+    private class Worker implements Runnable {
+
+        private final int densityDpi = context.getResources().getDisplayMetrics().densityDpi;
+        private final Rect bounds = new Rect();
+        private DocumentCache.Entry documentEntry;
+        private PdfFile pdfFile;
+        private int pagesOnHandle;
+        private Bitmap bitmap;
+
+        @Override
+        public void run() {
+            try {
+                openDocument();
+                int last = Math.min(lastPage, pdfFile.getPagesCount() - 1);
+                int page;
+                while (!cancelled.get() && (page = nextPage.getAndIncrement()) <= last) {
+                    if (pagesOnHandle++ >= PAGES_PER_DOCUMENT_HANDLE && reopenable) {
+                        closeDocument();
+                        openDocument();
+                    }
+                    try {
+                        exportPage(page);
+                        exportedPages.incrementAndGet();
+                    } catch (Exception e) {
+                        Log.w(TAG, "Cannot export page " + page, e);
+                        failedPages.incrementAndGet();
+                    }
+                    postProgress(last - Math.max(0, firstPage) + 1);
+                }
+            } catch (final Throwable t) {
+                if (cancelled.compareAndSet(false, true)) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (onExportListener != null) {
+                                onExportListener.onExportError(t);
+                            }
+                        }
+                    });
+                }
+            } finally {
+                closeDocument();
+                if (bitmap != null) {
+                    bitmap.recycle();
+                }
+                if (runningWorkers.decrementAndGet() == 0) {
+                    postComplete();
+                }
+            }
+        }
+
+        private void openDocument() throws IOException {
+            documentEntry = DocumentCache.getInstance().openUnshared(context, documentSource, backend, password);
+            pdfFile = new PdfFile(documentEntry, FitPolicy.WIDTH, userPages, true, 0, false, false,
+                    SpreadMode.NONE);
+            pdfFile.measurePageSizes();
+            pagesOnHandle = 0;
+        }
+
+        private void closeDocument() {
+            if (pdfFile != null) {
+                pdfFile.dispose();
+                pdfFile = null;
+            }
+        }
+
+        private void exportPage(int page) throws Exception {
+            pdfFile.openPage(page);
+            // sizes are measured at screen density
+            Size size = documentEntry.getPageSize(pdfFile.documentPage(page));
+            int width = Math.max(1, Math.round(size.getWidth() * (float) dpi / densityDpi));
+            int height = Math.max(1, Math.round(size.getHeight() * (float) dpi / densityDpi));
+            if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+                if (bitmap != null) {
+                    bitmap.recycle();
+                }
+                bitmap = Bitmap.createBitmap(width, height, bitmapConfig);
+            }
+            bitmap.eraseColor(Color.WHITE);
+            bounds.set(0, 0, width, height);
+            pdfFile.renderPageBitmap(bitmap, page, bounds, annotationRendering);
+
+            if (pageSink != null) {
+                pageSink.onPage(page, bitmap);
+            } else {
+                writePage(page);
+            }
+        }
+
+        private void writePage(int page) throws IOException {
+            File file = new File(directory, String.format(Locale.US, "page-%04d.%s", page, extension()));
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+            try {
+                if (!bitmap.compress(format, quality, out)) {
+                    throw new IOException("Cannot compress page " + page);
+                }
+            } finally {
+                out.close();
+            }
+            bytesWritten.addAndGet(file.length());
+        }
+    }
+
+    private String extension() {
+        switch (format) {
+            case JPEG:
+                return "jpg";
+            case PNG:
+                return "png";
+            default:
+                return "webp";
+        }
+    }
+
+    private void postProgress(final int totalPages) {
+        if (onExportListener == null || !progressPosted.compareAndSet(false, true)) {
+            return;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                progressPosted.set(false);
+                onExportListener.onExportProgress(exportedPages.get() + failedPages.get(), totalPages);
+            }
+        });
+    }
+
+    private void postComplete() {
+        final Report report = new Report(exportedPages.get(), failedPages.get(), bytesWritten.get(),
+                SystemClock.elapsedRealtime() - startTime, workers, cancelled.get());
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (onExportListener != null) {
+                    onExportListener.onExportComplete(report);
+                }
+            }
+        });
+    }
+
+    public static class Builder {
+
+        private final Context context;
+
+        private final DocumentSource documentSource;
+
+        private RenderBackend backend = PdfiumBackend.getInstance();
+
+        private int[] pageNumbers = null;
+
+        private String password = null;
+
+        private int firstPage = 0;
+
+        private int lastPage = Integer.MAX_VALUE;
+
+        private int dpi = 150;
+
+        private boolean annotationRendering = false;
+
+        private Bitmap.Config bitmapConfig = Bitmap.Config.ARGB_8888;
+
+        private File directory;
+
+        private Bitmap.CompressFormat format = Bitmap.CompressFormat.PNG;
+
+        private int quality = 100;
+
+        private PageSink pageSink;
+
+        private OnExportListener onExportListener;
+
+        private int workers = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+        private Builder(Context context, DocumentSource documentSource) {
+            this.context = context.getApplicationContext();
+            this.documentSource = documentSource;
+        }
+
+        /** Backend used to open and render the document, pdfium by default */
+        public Builder backend(RenderBackend backend) {
+            this.backend = backend;
+            return this;
+        }
+
+        public Builder pages(int... pageNumbers) {
+            this.pageNumbers = pageNumbers;
+            return this;
+        }
+
+        public Builder password(String password) {
+            this.password = password;
+            return this;
+        }
+
+        /** Export pages from first to last, inclusive, indexes are after applying {@link #pages(int...)} */
+        public Builder pageRange(int firstPage, int lastPage) {
+            this.firstPage = firstPage;
+            this.lastPage = lastPage;
+            return this;
+        }
+
+        public Builder dpi(int dpi) {
+            if (dpi <= 0) {
+                throw new IllegalArgumentException("DPI must be positive");
+            }
+            this.dpi = dpi;
+            return this;
+        }
+
+        public Builder enableAnnotationRendering(boolean annotationRendering) {
+            this.annotationRendering = annotationRendering;
+            return this;
+        }
+
+        /** Config of rendered bitmaps, ARGB_8888 by default */
+        public Builder bitmapConfig(Bitmap.Config bitmapConfig) {
+            this.bitmapConfig = bitmapConfig;
+            return this;
+        }
+
+        /** Write every page to a file named page-NNNN with extension of the format */
+        public Builder toDirectory(File directory, Bitmap.CompressFormat format, int quality) {
+            this.directory = directory;
+            this.format = format;
+            this.quality = quality;
+            this.pageSink = null;
+            return this;
+        }
+
+        /** Pass every page to a sink instead of writing files */
+        public Builder toSink(PageSink pageSink) {
+            this.pageSink = pageSink;
+            this.directory = null;
+            return this;
+        }
+
+        /** Number of pages rendered in parallel, each with own document handle */
+        public Builder workers(int workers) {
+            this.workers = Math.max(1, workers);
+            return this;
+        }
+
+        public Builder onExport(OnExportListener onExportListener) {
+            this.onExportListener = onExportListener;
+            return this;
+        }
+
+        /** Start exporting in the background, the returned exporter can cancel it */
+        public PdfExporter start() {
+            if (directory == null && pageSink == null) {
+                throw new IllegalStateException("Output directory or page sink must be set before exporting");
+            }
+            if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+                throw new IllegalStateException("Cannot create " + directory);
+            }
+            PdfExporter exporter = new PdfExporter(this);
+            exporter.start();
+            return exporter;
+        }
+    }
+}
@@ -18,13 +18,14 @@ package com.github.barteksc.pdfviewer;
 import android.graphics.Bitmap;
 import android.graphics.Rect;
 import android.graphics.RectF;
-import android.util.SparseBooleanArray;
 
+import com.github.barteksc.pdfviewer.backend.RenderDocument;
 import com.github.barteksc.pdfviewer.exception.PageRenderingException;
 import com.github.barteksc.pdfviewer.util.FitPolicy;
 import com.github.barteksc.pdfviewer.util.PageSizeCalculator;
+import com.github.barteksc.pdfviewer.util.SpreadMode;
+import com.github.barteksc.pdfviewer.util.Tracing;
 import com.shockwave.pdfium.PdfDocument;
-import com.shockwave.pdfium.PdfiumCore;
 import com.shockwave.pdfium.util.Size;
 import com.shockwave.pdfium.util.SizeF;
 
@@ -33,16 +34,14 @@ import java.util.List;
 
 class PdfFile {
 
-    private static final Object lock = new Object();
-    private PdfDocument pdfDocument;
-    private PdfiumCore pdfiumCore;
+    /** Opened document, possibly shared with other views */
+    private DocumentCache.Entry documentEntry;
+    private RenderDocument document;
     private int pagesCount = 0;
     /** Original page sizes */
     private List<Size> originalPageSizes = new ArrayList<>();
     /** Scaled page sizes */
     private List<SizeF> pageSizes = new ArrayList<>();
-    /** Opened pages with indicator whether opening was successful */
-    private SparseBooleanArray openedPages = new SparseBooleanArray();
     /** Page with maximum width */
     private Size originalMaxWidthPageSize = new Size(0, 0);
     /** Page with maximum height */
@@ -57,10 +56,25 @@ class PdfFile {
     private int spacingPx;
     /** Calculate spacing automatically so each page fits on it's own in the center of the view */
     private boolean autoSpacing;
+    /** How pages are grouped into spreads, pages of a spread lie side by side in one slot of the strip */
+    private final SpreadMode spreadMode;
+    /** First page of every spread, followed by the page count */
+    private int[] spreadStarts = new int[]{0};
+    /** Spread of every page */
+    private int[] pageSpreads = new int[0];
+    private int spreadsCount = 0;
+    /** Calculated offsets for spreads, sorted, so spreads are found by binary search */
+    private float[] spreadOffsets = new float[0];
+    /** Calculated spread lengths in the scroll direction */
+    private float[] spreadLengths = new float[0];
+    /** Calculated spacing after spreads, fixed or auto */
+    private float[] spreadSpacing = new float[0];
     /** Calculated offsets for pages */
-    private List<Float> pageOffsets = new ArrayList<>();
-    /** Calculated auto spacing for pages */
-    private List<Float> pageSpacing = new ArrayList<>();
+    private float[] pageOffsets = new float[0];
+    /** Calculated secondary offsets for pages */
+    private float[] secondaryPageOffsets = new float[0];
+    /** Size of the widest spread across the scroll direction */
+    private float maxSecondaryLength = 0;
     /** Calculated document length (width or height, depending on swipe mode) */
     private float documentLength = 0;
     private final FitPolicy pageFitPolicy;
@@ -75,38 +89,48 @@ class PdfFile {
      */
     private int[] originalUserPages;
 
-    PdfFile(PdfiumCore pdfiumCore, PdfDocument pdfDocument, FitPolicy pageFitPolicy, Size viewSize, int[] originalUserPages,
-            boolean isVertical, int spacing, boolean autoSpacing, boolean fitEachPage) {
-        this.pdfiumCore = pdfiumCore;
-        this.pdfDocument = pdfDocument;
+    /**
+     * Page sizes are not known until {@link #measurePageSizes()} and {@link #recalculatePageSizes(Size)}
+     * are called, so the loader can check for cancellation between these stages
+     */
+    PdfFile(DocumentCache.Entry documentEntry, FitPolicy pageFitPolicy, int[] originalUserPages,
+            boolean isVertical, int spacing, boolean autoSpacing, boolean fitEachPage, SpreadMode spreadMode) {
+        this.documentEntry = documentEntry;
+        this.document = documentEntry.document;
         this.pageFitPolicy = pageFitPolicy;
         this.originalUserPages = originalUserPages;
         this.isVertical = isVertical;
         this.spacingPx = spacing;
         this.autoSpacing = autoSpacing;
         this.fitEachPage = fitEachPage;
-        setup(viewSize);
+        this.spreadMode = spreadMode;
     }
 
-    private void setup(Size viewSize) {
-        if (originalUserPages != null) {
-            pagesCount = originalUserPages.length;
-        } else {
-            pagesCount = pdfiumCore.getPageCount(pdfDocument);
-        }
-
-        for (int i = 0; i < pagesCount; i++) {
-            Size pageSize = pdfiumCore.getPageSize(pdfDocument, documentPage(i));
-            if (pageSize.getWidth() > originalMaxWidthPageSize.getWidth()) {
-                originalMaxWidthPageSize = pageSize;
+    /** Read original sizes of all pages, sizes measured before for the same document are reused */
+    void measurePageSizes() {
+        Tracing.begin("PDFView: measure page sizes");
+        try {
+            if (originalUserPages != null) {
+                pagesCount = originalUserPages.length;
+            } else {
+                pagesCount = documentEntry.getPageCount();
             }
-            if (pageSize.getHeight() > originalMaxHeightPageSize.getHeight()) {
-                originalMaxHeightPageSize = pageSize;
+            Tracing.counter("PDFView: pages", pagesCount);
+
+            for (int i = 0; i < pagesCount; i++) {
+                Size pageSize = documentEntry.getPageSize(documentPage(i));
+                if (pageSize.getWidth() > originalMaxWidthPageSize.getWidth()) {
+                    originalMaxWidthPageSize = pageSize;
+                }
+                if (pageSize.getHeight() > originalMaxHeightPageSize.getHeight()) {
+                    originalMaxHeightPageSize = pageSize;
+                }
+                originalPageSizes.add(pageSize);
             }
-            originalPageSizes.add(pageSize);
+            prepareSpreads();
+        } finally {
+            Tracing.end();
         }
-
-        recalculatePageSizes(viewSize);
     }
 
     /**
@@ -115,20 +139,27 @@ class PdfFile {
      * @param viewSize new size of changed view
      */
     public void recalculatePageSizes(Size viewSize) {
-        pageSizes.clear();
-        PageSizeCalculator calculator = new PageSizeCalculator(pageFitPolicy, originalMaxWidthPageSize,
-                originalMaxHeightPageSize, viewSize, fitEachPage);
-        maxWidthPageSize = calculator.getOptimalMaxWidthPageSize();
-        maxHeightPageSize = calculator.getOptimalMaxHeightPageSize();
-
-        for (Size size : originalPageSizes) {
-            pageSizes.add(calculator.calculate(size));
-        }
-        if (autoSpacing) {
-            prepareAutoSpacing(viewSize);
+        Tracing.begin("PDFView: recalculate page sizes");
+        try {
+            pageSizes.clear();
+            // pages of a spread share the view
+            Size fitSize = spreadMode == SpreadMode.NONE ? viewSize
+                    : new Size(viewSize.getWidth() / 2, viewSize.getHeight());
+            PageSizeCalculator calculator = new PageSizeCalculator(pageFitPolicy, originalMaxWidthPageSize,
+                    originalMaxHeightPageSize, fitSize, fitEachPage);
+            maxWidthPageSize = calculator.getOptimalMaxWidthPageSize();
+            maxHeightPageSize = calculator.getOptimalMaxHeightPageSize();
+
+            for (Size size : originalPageSizes) {
+                pageSizes.add(calculator.calculate(size));
+            }
+            prepareSpreadLengths();
+            prepareSpacing(viewSize);
+            prepareDocLen();
+            preparePagesOffset();
+        } finally {
+            Tracing.end();
         }
-        prepareDocLen();
-        preparePagesOffset();
     }
 
     public int getPagesCount() {
@@ -157,35 +188,105 @@ class PdfFile {
         return isVertical ? maxWidthPageSize : maxHeightPageSize;
     }
 
+    /** @return width of the widest page, or of the widest spread when scrolling vertically */
     public float getMaxPageWidth() {
-        return getMaxPageSize().getWidth();
+        return isVertical ? maxSecondaryLength : getMaxPageSize().getWidth();
     }
 
+    /** @return height of the highest page or spread when scrolling horizontally, else of the widest page */
     public float getMaxPageHeight() {
-        return getMaxPageSize().getHeight();
+        return isVertical ? getMaxPageSize().getHeight() : maxSecondaryLength;
+    }
+
+    public SpreadMode getSpreadMode() {
+        return spreadMode;
+    }
+
+    /** Group pages into spreads, pages of a spread follow each other */
+    private void prepareSpreads() {
+        spreadStarts = new int[pagesCount + 1];
+        pageSpreads = new int[pagesCount];
+        spreadsCount = 0;
+        int page = 0;
+        while (page < pagesCount) {
+            int size = 2;
+            if (spreadMode == SpreadMode.NONE || (spreadMode == SpreadMode.COVER_THEN_PAIRS && page == 0)) {
+                size = 1;
+            }
+            spreadStarts[spreadsCount] = page;
+            for (int end = Math.min(pagesCount, page + size); page < end; page++) {
+                pageSpreads[page] = spreadsCount;
+            }
+            spreadsCount++;
+        }
+        spreadStarts[spreadsCount] = pagesCount;
+    }
+
+    /** Calculate spread lengths and secondary offsets of pages, pages of a spread are centered together */
+    private void prepareSpreadLengths() {
+        spreadLengths = new float[spreadsCount];
+        secondaryPageOffsets = new float[pagesCount];
+        float[] secondaryLengths = new float[spreadsCount];
+        for (int spread = 0; spread < spreadsCount; spread++) {
+            float length = 0, secondaryLength = 0;
+            for (int i = spreadStarts[spread]; i < spreadStarts[spread + 1]; i++) {
+                SizeF pageSize = pageSizes.get(i);
+                if (isVertical) {
+                    length = Math.max(length, pageSize.getHeight());
+                    secondaryLength += pageSize.getWidth();
+                } else {
+                    length += pageSize.getWidth();
+                    secondaryLength = Math.max(secondaryLength, pageSize.getHeight());
+                }
+            }
+            spreadLengths[spread] = length;
+            secondaryLengths[spread] = secondaryLength;
+        }
+
+        if (spreadMode == SpreadMode.NONE) {
+            maxSecondaryLength = isVertical ? maxWidthPageSize.getWidth() : maxHeightPageSize.getHeight();
+        } else {
+            maxSecondaryLength = 0;
+            for (float secondaryLength : secondaryLengths) {
+                maxSecondaryLength = Math.max(maxSecondaryLength, secondaryLength);
+            }
+        }
+
+        for (int spread = 0; spread < spreadsCount; spread++) {
+            float offset = (maxSecondaryLength - secondaryLengths[spread]) / 2;
+            for (int i = spreadStarts[spread]; i < spreadStarts[spread + 1]; i++) {
+                SizeF pageSize = pageSizes.get(i);
+                if (isVertical) {
+                    secondaryPageOffsets[i] = offset;
+                    offset += pageSize.getWidth();
+                } else {
+                    secondaryPageOffsets[i] = (maxSecondaryLength - pageSize.getHeight()) / 2;
+                }
+            }
+        }
     }
 
-    private void prepareAutoSpacing(Size viewSize) {
-        pageSpacing.clear();
-        for (int i = 0; i < getPagesCount(); i++) {
-            SizeF pageSize = pageSizes.get(i);
-            float spacing = Math.max(0, isVertical ? viewSize.getHeight() - pageSize.getHeight() :
-                    viewSize.getWidth() - pageSize.getWidth());
-            if (i < getPagesCount() - 1) {
-                spacing += spacingPx;
+    private void prepareSpacing(Size viewSize) {
+        spreadSpacing = new float[spreadsCount];
+        for (int i = 0; i < spreadsCount; i++) {
+            float spacing = spacingPx;
+            if (autoSpacing) {
+                spacing = Math.max(0, (isVertical ? viewSize.getHeight() : viewSize.getWidth()) - spreadLengths[i]);
+                if (i < spreadsCount - 1) {
+                    spacing += spacingPx;
+                }
             }
-            pageSpacing.add(spacing);
+            spreadSpacing[i] = spacing;
         }
     }
 
     private void prepareDocLen() {
         float length = 0;
-        for (int i = 0; i < getPagesCount(); i++) {
-            SizeF pageSize = pageSizes.get(i);
-            length += isVertical ? pageSize.getHeight() : pageSize.getWidth();
+        for (int i = 0; i < spreadsCount; i++) {
+            length += spreadLengths[i];
             if (autoSpacing) {
-                length += pageSpacing.get(i);
-            } else if (i < getPagesCount() - 1) {
+                length += spreadSpacing[i];
+            } else if (i < spreadsCount - 1) {
                 length += spacingPx;
             }
         }
@@ -193,23 +294,34 @@ class PdfFile {
     }
 
     private void preparePagesOffset() {
-        pageOffsets.clear();
+        spreadOffsets = new float[spreadsCount];
+        pageOffsets = new float[pagesCount];
         float offset = 0;
-        for (int i = 0; i < getPagesCount(); i++) {
-            SizeF pageSize = pageSizes.get(i);
-            float size = isVertical ? pageSize.getHeight() : pageSize.getWidth();
+        for (int i = 0; i < spreadsCount; i++) {
             if (autoSpacing) {
-                offset += pageSpacing.get(i) / 2f;
+                offset += spreadSpacing[i] / 2f;
                 if (i == 0) {
                     offset -= spacingPx / 2f;
-                } else if (i == getPagesCount() - 1) {
+                } else if (i == spreadsCount - 1) {
                     offset += spacingPx / 2f;
                 }
-                pageOffsets.add(offset);
-                offset += size + pageSpacing.get(i) / 2f;
+                spreadOffsets[i] = offset;
+                offset += spreadLengths[i] + spreadSpacing[i] / 2f;
             } else {
-                pageOffsets.add(offset);
-                offset += size + spacingPx;
+                spreadOffsets[i] = offset;
+                offset += spreadLengths[i] + spacingPx;
+            }
+
+            // pages of a spread follow each other when scrolling horizontally, else they are centered
+            float pageOffset = spreadOffsets[i];
+            for (int page = spreadStarts[i]; page < spreadStarts[i + 1]; page++) {
+                SizeF pageSize = pageSizes.get(page);
+                if (isVertical) {
+                    pageOffsets[page] = pageOffset + (spreadLengths[i] - pageSize.getHeight()) / 2;
+                } else {
+                    pageOffsets[page] = pageOffset;
+                    pageOffset += pageSize.getWidth();
+                }
             }
         }
     }
@@ -226,9 +338,12 @@ class PdfFile {
         return (isVertical ? size.getHeight() : size.getWidth()) * zoom;
     }
 
+    /** Get spacing after the spread of the page */
     public float getPageSpacing(int pageIndex, float zoom) {
-        float spacing = autoSpacing ? pageSpacing.get(pageIndex) : spacingPx;
-        return spacing * zoom;
+        if (documentPage(pageIndex) < 0) {
+            return spacingPx * zoom;
+        }
+        return spreadSpacing[pageSpreads[pageIndex]] * zoom;
     }
 
     /** Get primary page offset, that is Y for vertical scroll and X for horizontal scroll */
@@ -237,31 +352,89 @@ class PdfFile {
         if (docPage < 0) {
             return 0;
         }
-        return pageOffsets.get(pageIndex) * zoom;
+        return pageOffsets[pageIndex] * zoom;
     }
 
     /** Get secondary page offset, that is X for vertical scroll and Y for horizontal scroll */
     public float getSecondaryPageOffset(int pageIndex, float zoom) {
-        SizeF pageSize = getPageSize(pageIndex);
-        if (isVertical) {
-            float maxWidth = getMaxPageWidth();
-            return zoom * (maxWidth - pageSize.getWidth()) / 2; //x
-        } else {
-            float maxHeight = getMaxPageHeight();
-            return zoom * (maxHeight - pageSize.getHeight()) / 2; //y
+        int docPage = documentPage(pageIndex);
+        if (docPage < 0) {
+            return 0;
+        }
+        return secondaryPageOffsets[pageIndex] * zoom;
+    }
+
+    /** Get primary offset of the spread containing the page, the same as the page offset without spreads */
+    public float getSpreadOffset(int pageIndex, float zoom) {
+        if (documentPage(pageIndex) < 0) {
+            return 0;
+        }
+        return spreadOffsets[pageSpreads[pageIndex]] * zoom;
+    }
+
+    /** Get length of the spread containing the page in the scroll direction */
+    public float getSpreadLength(int pageIndex, float zoom) {
+        if (documentPage(pageIndex) < 0) {
+            return 0;
+        }
+        return spreadLengths[pageSpreads[pageIndex]] * zoom;
+    }
+
+    /** @return first page of the spread containing the page */
+    public int getSpreadStart(int pageIndex) {
+        if (documentPage(pageIndex) < 0) {
+            return pageIndex;
         }
+        return spreadStarts[pageSpreads[pageIndex]];
     }
 
+    /** @return last page of the spread containing the page */
+    public int getSpreadEnd(int pageIndex) {
+        if (documentPage(pageIndex) < 0) {
+            return pageIndex;
+        }
+        return spreadStarts[pageSpreads[pageIndex] + 1] - 1;
+    }
+
+    /** @return first page of the spread at the offset */
     public int getPageAtOffset(float offset, float zoom) {
-        int currentPage = 0;
-        for (int i = 0; i < getPagesCount(); i++) {
-            float off = pageOffsets.get(i) * zoom - getPageSpacing(i, zoom) / 2f;
-            if (off >= offset) {
-                break;
+        return spreadStarts[getSpreadAtOffset(offset, zoom)];
+    }
+
+    /**
+     * Find page at the position, pages of a spread are told apart by the secondary offset
+     * when scrolling vertically and by the offset when scrolling horizontally
+     */
+    public int getPageAt(float offset, float secondaryOffset, float zoom) {
+        if (spreadsCount == 0) {
+            return 0;
+        }
+        int spread = getSpreadAtOffset(offset, zoom);
+        int page = spreadStarts[spread];
+        for (int i = page + 1; i < spreadStarts[spread + 1]; i++) {
+            if (isVertical ? secondaryOffset >= secondaryPageOffsets[i] * zoom : offset >= pageOffsets[i] * zoom) {
+                page = i;
             }
-            currentPage++;
         }
-        return --currentPage >= 0 ? currentPage : 0;
+        return page;
+    }
+
+    /** Binary search for the last spread starting before the offset, spreads start in the middle of spacing */
+    private int getSpreadAtOffset(float offset, float zoom) {
+        int low = 0;
+        int high = spreadsCount - 1;
+        int found = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            float start = spreadOffsets[mid] * zoom - spreadSpacing[mid] * zoom / 2f;
+            if (start < offset) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
     }
 
     public boolean openPage(int pageIndex) throws PageRenderingException {
@@ -270,63 +443,52 @@ class PdfFile {
             return false;
         }
 
-        synchronized (lock) {
-            if (openedPages.indexOfKey(docPage) < 0) {
-                try {
-                    pdfiumCore.openPage(pdfDocument, docPage);
-                    openedPages.put(docPage, true);
-                    return true;
-                } catch (Exception e) {
-                    openedPages.put(docPage, false);
-                    throw new PageRenderingException(pageIndex, e);
-                }
-            }
-            return false;
-        }
+        return documentEntry.openPage(docPage, pageIndex);
     }
 
     public boolean pageHasError(int pageIndex) {
         int docPage = documentPage(pageIndex);
-        return !openedPages.get(docPage, false);
+        return documentEntry.pageHasError(docPage);
     }
 
     public void renderPageBitmap(Bitmap bitmap, int pageIndex, Rect bounds, boolean annotationRendering) {
         int docPage = documentPage(pageIndex);
-        pdfiumCore.renderPageBitmap(pdfDocument, bitmap, docPage,
+        document.renderPage(bitmap, docPage,
                 bounds.left, bounds.top, bounds.width(), bounds.height(), annotationRendering);
     }
 
     public PdfDocument.Meta getMetaData() {
-        if (pdfDocument == null) {
+        if (document == null) {
             return null;
         }
-        return pdfiumCore.getDocumentMeta(pdfDocument);
+        return document.getMetadata();
     }
 
     public List<PdfDocument.Bookmark> getBookmarks() {
-        if (pdfDocument == null) {
+        if (document == null) {
             return new ArrayList<>();
         }
-        return pdfiumCore.getTableOfContents(pdfDocument);
+        return document.getTableOfContents();
     }
 
     public List<PdfDocument.Link> getPageLinks(int pageIndex) {
         int docPage = documentPage(pageIndex);
-        return pdfiumCore.getPageLinks(pdfDocument, docPage);
+        return document.getPageLinks(docPage);
     }
 
     public RectF mapRectToDevice(int pageIndex, int startX, int startY, int sizeX, int sizeY,
                                  RectF rect) {
         int docPage = documentPage(pageIndex);
-        return pdfiumCore.mapRectToDevice(pdfDocument, docPage, startX, startY, sizeX, sizeY, 0, rect);
+        return document.mapRectToDevice(docPage, startX, startY, sizeX, sizeY, rect);
     }
 
     public void dispose() {
-        if (pdfiumCore != null && pdfDocument != null) {
-            pdfiumCore.closeDocument(pdfDocument);
+        if (documentEntry != null) {
+            DocumentCache.getInstance().release(documentEntry);
         }
 
-        pdfDocument = null;
+        documentEntry = null;
+        document = null;
         originalUserPages = null;
     }
 
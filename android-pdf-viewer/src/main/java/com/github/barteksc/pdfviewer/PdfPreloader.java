@@ -0,0 +1,368 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.content.Context;
+import android.graphics.RectF;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.github.barteksc.pdfviewer.backend.PdfiumBackend;
+import com.github.barteksc.pdfviewer.backend.RenderBackend;
+import com.github.barteksc.pdfviewer.model.PagePart;
+import com.github.barteksc.pdfviewer.source.CacheableSource;
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+import com.github.barteksc.pdfviewer.util.Constants;
+import com.github.barteksc.pdfviewer.util.FitPolicy;
+import com.github.barteksc.pdfviewer.util.MathUtils;
+import com.github.barteksc.pdfviewer.util.SpreadMode;
+import com.github.barteksc.pdfviewer.util.Util;
+import com.shockwave.pdfium.util.Size;
+import com.shockwave.pdfium.util.SizeF;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Decodes a document, calculates its layout and renders the first screen before any view is ready to show it,
+ * e.g. for the next item of a list. When {@link PDFView} later loads the same source with the same options
+ * and size, it adopts the prepared results and shows the document at once.
+ * <p>
+ * Usage:
+ * <pre>
+ * PdfPreloader.from(context, new FileSource(file))
+ *     .viewSize(width, height)
+ *     .defaultPage(2)
+ *     .preload();
+ * </pre>
+ * Options which change the layout must be the same as later passed to {@link PDFView.Configurator}.
+ * Unused results are dropped after {@link Constants.Cache#DOCUMENT_IDLE_TIMEOUT}.
+ */
+public class PdfPreloader {
+
+    private static final String TAG = PdfPreloader.class.getSimpleName();
+
+    private static final List<Result> results = new ArrayList<>();
+
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
+    private PdfPreloader() {
+        // Prevents instantiation
+    }
+
+    public static Request from(Context context, DocumentSource documentSource) {
+        return new Request(context, documentSource);
+    }
+
+    /** Drop all preloaded results which were not adopted by a view */
+    public static void clear() {
+        List<Result> toDispose;
+        synchronized (results) {
+            toDispose = new ArrayList<>(results);
+            results.clear();
+        }
+        for (Result result : toDispose) {
+            result.dispose();
+        }
+    }
+
+    /** Layout options must match exactly, because cached parts are found by their page relative bounds */
+    static String layoutKey(RenderBackend backend, String password, int[] userPages, boolean swipeVertical,
+                            FitPolicy pageFitPolicy, boolean fitEachPage, SpreadMode spreadMode, int spacingPx,
+                            boolean autoSpacing, boolean bestQuality, boolean annotationRendering, int defaultPage,
+                            int width, int height, float partSize) {
+        return backend.getClass().getName() + ":" + backend.getCacheKey()
+                + "|" + password + "|" + Arrays.toString(userPages)
+                + "|" + swipeVertical + "|" + pageFitPolicy + "|" + fitEachPage + "|" + spreadMode + "|" + spacingPx
+                + "|" + autoSpacing + "|" + bestQuality + "|" + annotationRendering + "|" + defaultPage
+                + "|" + width + "x" + height + "|" + partSize;
+    }
+
+    /** Remove and return results prepared for the source and layout, or null if there are none */
+    static Result take(DocumentSource documentSource, String layoutKey) {
+        synchronized (results) {
+            Iterator<Result> iterator = results.iterator();
+            while (iterator.hasNext()) {
+                Result result = iterator.next();
+                if (result.matches(documentSource, layoutKey)) {
+                    iterator.remove();
+                    handler.removeCallbacks(result.expiration);
+                    return result;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static void publish(final Result result) {
+        synchronized (results) {
+            results.add(result);
+        }
+        handler.postDelayed(result.expiration, Constants.Cache.DOCUMENT_IDLE_TIMEOUT);
+    }
+
+    /** Document prepared for a view, owned by the view which takes it */
+    static class Result {
+
+        private final DocumentSource documentSource;
+        private final String layoutKey;
+        final PdfFile pdfFile;
+        final List<PagePart> thumbnails = new ArrayList<>();
+        final List<PagePart> parts = new ArrayList<>();
+
+        private final Runnable expiration = new Runnable() {
+            @Override
+            public void run() {
+                boolean removed;
+                synchronized (results) {
+                    removed = results.remove(Result.this);
+                }
+                if (removed) {
+                    dispose();
+                }
+            }
+        };
+
+        private Result(DocumentSource documentSource, String layoutKey, PdfFile pdfFile) {
+            this.documentSource = documentSource;
+            this.layoutKey = layoutKey;
+            this.pdfFile = pdfFile;
+        }
+
+        private boolean matches(DocumentSource source, String layoutKey) {
+            if (!this.layoutKey.equals(layoutKey)) {
+                return false;
+            }
+            if (source == documentSource) {
+                return true;
+            }
+            return source instanceof CacheableSource && documentSource instanceof CacheableSource
+                    && ((CacheableSource) source).getCacheKey().equals(((CacheableSource) documentSource).getCacheKey());
+        }
+
+        private void dispose() {
+            for (PagePart part : thumbnails) {
+                part.getRenderedBitmap().recycle();
+            }
+            for (PagePart part : parts) {
+                part.getRenderedBitmap().recycle();
+            }
+            pdfFile.dispose();
+        }
+    }
+
+    public static class Request {
+
+        private final Context context;
+
+        private final DocumentSource documentSource;
+
+        private RenderBackend backend = PdfiumBackend.getInstance();
+
+        private int[] pageNumbers = null;
+
+        private int defaultPage = 0;
+
+        private boolean swipeHorizontal = false;
+
+        private boolean annotationRendering = false;
+
+        private boolean bestQuality = false;
+
+        private String password = null;
+
+        private int spacing = 0;
+
+        private boolean autoSpacing = false;
+
+        private FitPolicy pageFitPolicy = FitPolicy.WIDTH;
+
+        private boolean fitEachPage = false;
+
+        private SpreadMode spreadMode = SpreadMode.NONE;
+
+        private RenderingConfig renderingConfig = RenderingConfig.defaults();
+
+        private int width;
+
+        private int height;
+
+        private Request(Context context, DocumentSource documentSource) {
+            this.context = context.getApplicationContext();
+            this.documentSource = documentSource;
+        }
+
+        /** Expected size of the view, in px */
+        public Request viewSize(int width, int height) {
+            this.width = width;
+            this.height = height;
+            return this;
+        }
+
+        /** Backend used to open and render the document, must be the same as later set on the view */
+        public Request backend(RenderBackend backend) {
+            this.backend = backend;
+            return this;
+        }
+
+        public Request pages(int... pageNumbers) {
+            this.pageNumbers = pageNumbers;
+            return this;
+        }
+
+        public Request defaultPage(int defaultPage) {
+            this.defaultPage = defaultPage;
+            return this;
+        }
+
+        public Request swipeHorizontal(boolean swipeHorizontal) {
+            this.swipeHorizontal = swipeHorizontal;
+            return this;
+        }
+
+        public Request enableAnnotationRendering(boolean annotationRendering) {
+            this.annotationRendering = annotationRendering;
+            return this;
+        }
+
+        public Request useBestQuality(boolean bestQuality) {
+            this.bestQuality = bestQuality;
+            return this;
+        }
+
+        public Request password(String password) {
+            this.password = password;
+            return this;
+        }
+
+        public Request spacing(int spacing) {
+            this.spacing = spacing;
+            return this;
+        }
+
+        public Request autoSpacing(boolean autoSpacing) {
+            this.autoSpacing = autoSpacing;
+            return this;
+        }
+
+        public Request pageFitPolicy(FitPolicy pageFitPolicy) {
+            this.pageFitPolicy = pageFitPolicy;
+            return this;
+        }
+
+        public Request fitEachPage(boolean fitEachPage) {
+            this.fitEachPage = fitEachPage;
+            return this;
+        }
+
+        public Request spreadMode(SpreadMode spreadMode) {
+            this.spreadMode = spreadMode;
+            return this;
+        }
+
+        /** Sizes of parts and thumbnails, must be the same as later set on the view */
+        public Request renderingConfig(RenderingConfig renderingConfig) {
+            this.renderingConfig = renderingConfig;
+            return this;
+        }
+
+        /** Start preloading in background */
+        public void preload() {
+            if (width <= 0 || height <= 0) {
+                throw new IllegalStateException("View size must be set before preloading");
+            }
+            final int spacingPx = Util.getDP(context, spacing);
+            // the size a view picks before it measures render cost
+            final float partSize = AdaptivePartSize.pickPartSize(renderingConfig,
+                    context.getResources().getDisplayMetrics().density, 1f, (long) width * height, 0);
+            DecodingTask.getDefaultExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        publish(prepare(spacingPx, partSize));
+                    } catch (Throwable t) {
+                        Log.w(TAG, "Cannot preload document", t);
+                    }
+                }
+            });
+        }
+
+        private Result prepare(int spacingPx, float partSize) throws Exception {
+            DocumentCache.Entry documentEntry = DocumentCache.getInstance()
+                    .acquire(context, documentSource, backend, password);
+            PdfFile pdfFile = new PdfFile(documentEntry, pageFitPolicy, pageNumbers, !swipeHorizontal,
+                    spacingPx, autoSpacing, fitEachPage, spreadMode);
+            Result result = new Result(documentSource, layoutKey(backend, password, pageNumbers, !swipeHorizontal,
+                    pageFitPolicy, fitEachPage, spreadMode, spacingPx, autoSpacing, bestQuality, annotationRendering,
+                    defaultPage, width, height, partSize), pdfFile);
+            try {
+                pdfFile.measurePageSizes();
+                pdfFile.recalculatePageSizes(new Size(width, height));
+                if (pdfFile.getPagesCount() > 0) {
+                    int page = pdfFile.determineValidPageNumberFrom(defaultPage);
+                    // every page of the default spread is visible
+                    for (int i = pdfFile.getSpreadStart(page); i <= pdfFile.getSpreadEnd(page); i++) {
+                        renderFirstScreen(result, i, partSize);
+                    }
+                }
+                return result;
+            } catch (Exception e) {
+                result.dispose();
+                throw e;
+            }
+        }
+
+        /** Render thumbnail and parts of the default page visible with the page at the start of the view */
+        private void renderFirstScreen(Result result, int page, float partSize) throws Exception {
+            PdfFile pdfFile = result.pdfFile;
+            PartRenderer renderer = new PartRenderer();
+            SizeF pageSize = pdfFile.getPageSize(page);
+
+            float thumbnailRatio = renderingConfig.getThumbnailRatio();
+            PagePart thumbnail = renderer.render(pdfFile, page, pageSize.getWidth() * thumbnailRatio,
+                    pageSize.getHeight() * thumbnailRatio, new RectF(0, 0, 1, 1), true, 0,
+                    bestQuality, annotationRendering, false);
+            if (thumbnail != null) {
+                result.thumbnails.add(thumbnail);
+            }
+
+            PagesLoader.GridSize grid = new PagesLoader.GridSize();
+            PagesLoader.getPageColsRows(grid, pageSize, 1f, partSize);
+            float pageRelativePartWidth = 1f / (float) grid.cols;
+            float pageRelativePartHeight = 1f / (float) grid.rows;
+            float partRenderWidth = partSize / pageRelativePartWidth;
+            float partRenderHeight = partSize / pageRelativePartHeight;
+            int lastRow = Math.min(MathUtils.ceil(height / (pageSize.getHeight() / grid.rows)), grid.rows) - 1;
+            int lastCol = Math.min(MathUtils.ceil(width / (pageSize.getWidth() / grid.cols)), grid.cols) - 1;
+
+            int cacheOrder = 1;
+            for (int row = 0; row <= lastRow; row++) {
+                for (int col = 0; col <= lastCol; col++) {
+                    RectF bounds = PagesLoader.getCellBounds(row, col, pageRelativePartWidth, pageRelativePartHeight);
+                    PagePart part = renderer.render(pdfFile, page, partRenderWidth * bounds.width(),
+                            partRenderHeight * bounds.height(), bounds, false, cacheOrder++,
+                            bestQuality, annotationRendering, false);
+                    if (part != null) {
+                        result.parts.add(part);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,769 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.util.Log;
+
+import com.github.barteksc.pdfviewer.backend.PdfiumBackend;
+import com.github.barteksc.pdfviewer.backend.RenderBackend;
+import com.github.barteksc.pdfviewer.listener.OnErrorListener;
+import com.github.barteksc.pdfviewer.listener.OnThumbnailListener;
+import com.github.barteksc.pdfviewer.source.CacheableSource;
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+import com.github.barteksc.pdfviewer.util.Constants;
+import com.github.barteksc.pdfviewer.util.FitPolicy;
+import com.github.barteksc.pdfviewer.util.SpreadMode;
+import com.github.barteksc.pdfviewer.util.Util;
+import com.shockwave.pdfium.util.Size;
+import com.shockwave.pdfium.util.SizeF;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small images of all pages for overview grids and strips, independent of {@link PDFView}.
+ * Pages are rendered on an own thread, requested pages first and then the rest of the document,
+ * and packed into large atlas bitmaps, so a thousand pages need few bitmaps and no per page allocation.
+ * Atlases of cacheable sources are saved to the cache directory, so reopening the same document
+ * shows thumbnails without parsing it.
+ * <p>
+ * Usage:
+ * <pre>
+ * PdfThumbnails thumbnails = PdfThumbnails.from(context, new FileSource(file))
+ *     .cellSize(120, 160)
+ *     .onThumbnail(listener)
+ *     .open();
+ * thumbnails.request(firstVisible, lastVisible);
+ * ...
+ * thumbnails.draw(canvas, page, bounds, paint);
+ * ...
+ * thumbnails.close();
+ * </pre>
+ * Methods other than rendering are called on the main thread.
+ */
+public class PdfThumbnails {
+
+    private static final String TAG = PdfThumbnails.class.getSimpleName();
+
+    private static final int INDEX_MAGIC = 0x50445448;
+    private static final int INDEX_VERSION = 1;
+
+    private static final int MSG_OPEN = 1;
+    private static final int MSG_RENDER = 2;
+    private static final int MSG_LOAD_ATLAS = 3;
+    private static final int MSG_CLOSE = 4;
+
+    private final Context context;
+    private final DocumentSource documentSource;
+    private final RenderBackend backend;
+    private final String password;
+    private final int[] userPages;
+    private final int cellWidth;
+    private final int cellHeight;
+    private final boolean bestQuality;
+    private final boolean annotationRendering;
+    private final OnThumbnailListener onThumbnailListener;
+    private final OnErrorListener onErrorListener;
+
+    /** Cells in a row and rows of an atlas */
+    private final int columns;
+    private final int rows;
+
+    private final HandlerThread thread;
+    private final Handler handler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final Object lock = new Object();
+
+    // fields below are guarded by lock
+    private int pagesCount = -1;
+    /** Width and height of every thumbnail, fitted in the cell */
+    private int[] sizes;
+    private final BitSet rendered = new BitSet();
+    private int requestFirst = 0;
+    private int requestLast = -1;
+    private boolean closed = false;
+    /** Atlases in memory, in access order */
+    private final LinkedHashMap<Integer, Atlas> atlases = new LinkedHashMap<>(16, 0.75f, true);
+    /** Atlases requested by drawing and not loaded from disk yet */
+    private final BitSet loadingAtlases = new BitSet();
+
+    /** Directory atlases are saved to, null if they are kept in memory only */
+    private final File directory;
+
+    // fields below are used on the rendering thread only
+    /** Opened lazily, when some page is not on disk */
+    private PdfFile pdfFile;
+    /** Page is rendered here first, because pdfium fills the whole target bitmap */
+    private Bitmap scratch;
+    private final Rect renderBounds = new Rect();
+    private final Rect source = new Rect();
+    private final Rect destination = new Rect();
+
+    private static class Atlas {
+        final Bitmap bitmap;
+        /** Has pages not saved to disk yet */
+        boolean dirty;
+
+        Atlas(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+
+    private PdfThumbnails(Builder builder) {
+        context = builder.context;
+        documentSource = builder.documentSource;
+        backend = builder.backend;
+        password = builder.password;
+        userPages = builder.pageNumbers;
+        cellWidth = builder.cellWidth;
+        cellHeight = builder.cellHeight;
+        bestQuality = builder.bestQuality;
+        annotationRendering = builder.annotationRendering;
+        onThumbnailListener = builder.onThumbnailListener;
+        onErrorListener = builder.onErrorListener;
+        columns = Math.max(1, Constants.THUMBNAIL_ATLAS_SIZE / cellWidth);
+        rows = Math.max(1, Constants.THUMBNAIL_ATLAS_SIZE / cellHeight);
+        if (builder.persist && documentSource instanceof CacheableSource) {
+            String key = ((CacheableSource) documentSource).getCacheKey()
+                    + "\n" + backend.getClass().getName() + ":" + backend.getCacheKey()
+                    + "\n" + password + "\n" + Arrays.toString(userPages) + "\n" + cellWidth + "x" + cellHeight + "\n"
+                    + bestQuality + "\n" + annotationRendering;
+            directory = new File(new File(context.getCacheDir(), "pdfview-thumbnails"), Util.sha1Hex(key));
+        } else {
+            directory = null;
+        }
+
+        thread = new HandlerThread("PDF thumbnails", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper(), new Handler.Callback() {
+            @Override
+            public boolean handleMessage(Message message) {
+                switch (message.what) {
+                    case MSG_OPEN:
+                        open();
+                        break;
+                    case MSG_RENDER:
+                        renderNext();
+                        break;
+                    case MSG_LOAD_ATLAS:
+                        loadAtlas(message.arg1);
+                        break;
+                    case MSG_CLOSE:
+                        release();
+                        break;
+                }
+                return true;
+            }
+        });
+        handler.sendEmptyMessage(MSG_OPEN);
+    }
+
+    public static Builder from(Context context, DocumentSource documentSource) {
+        return new Builder(context, documentSource);
+    }
+
+    /** @return number of pages, or -1 if thumbnails are not opened yet */
+    public int getPageCount() {
+        synchronized (lock) {
+            return pagesCount;
+        }
+    }
+
+    /** @return size of the thumbnail fitted in the cell, or null if thumbnails are not opened yet */
+    public SizeF getThumbnailSize(int page) {
+        synchronized (lock) {
+            if (sizes == null || page < 0 || page >= pagesCount) {
+                return null;
+            }
+            return new SizeF(sizes[page * 2], sizes[page * 2 + 1]);
+        }
+    }
+
+    /** Render pages from first to last, inclusive, before other pages. Call it when visible pages change. */
+    public void request(int firstPage, int lastPage) {
+        synchronized (lock) {
+            requestFirst = firstPage;
+            requestLast = lastPage;
+        }
+        scheduleRender();
+    }
+
+    public boolean isReady(int page) {
+        synchronized (lock) {
+            return rendered.get(page);
+        }
+    }
+
+    /**
+     * Draw thumbnail of a page scaled to given bounds. If its atlas is on disk only, it is loaded in the background
+     * and {@link OnThumbnailListener#onThumbnailsReady(int, int)} is called when it can be drawn.
+     *
+     * @return false if the thumbnail is not ready yet
+     */
+    public boolean draw(Canvas canvas, int page, RectF bounds, Paint paint) {
+        Atlas atlas;
+        synchronized (lock) {
+            if (closed || !rendered.get(page)) {
+                return false;
+            }
+            atlas = atlases.get(page / pageSlots());
+            if (atlas == null) {
+                int index = page / pageSlots();
+                if (!loadingAtlases.get(index)) {
+                    loadingAtlases.set(index);
+                    handler.sendMessageAtFrontOfQueue(handler.obtainMessage(MSG_LOAD_ATLAS, index, 0));
+                }
+                return false;
+            }
+            slotBounds(page, source);
+        }
+        canvas.drawBitmap(atlas.bitmap, source, bounds, paint);
+        return true;
+    }
+
+    /** Stop rendering, save what was rendered and close the document */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        handler.removeMessages(MSG_RENDER);
+        handler.removeMessages(MSG_LOAD_ATLAS);
+        handler.sendEmptyMessage(MSG_CLOSE);
+    }
+
+    private int pageSlots() {
+        return columns * rows;
+    }
+
+    /** Bounds of page thumbnail in its atlas, called with lock held */
+    private void slotBounds(int page, Rect out) {
+        int slot = page % pageSlots();
+        int left = (slot % columns) * cellWidth;
+        int top = (slot / columns) * cellHeight;
+        out.set(left, top, left + sizes[page * 2], top + sizes[page * 2 + 1]);
+    }
+
+    private void scheduleRender() {
+        if (!handler.hasMessages(MSG_RENDER)) {
+            handler.sendEmptyMessage(MSG_RENDER);
+        }
+    }
+
+    private void open() {
+        try {
+            if (!readIndex()) {
+                openDocument();
+                synchronized (lock) {
+                    pagesCount = pdfFile.getPagesCount();
+                    sizes = new int[pagesCount * 2];
+                    for (int page = 0; page < pagesCount; page++) {
+                        SizeF size = pdfFile.getPageSize(page);
+                        sizes[page * 2] = Math.max(1, Math.min(cellWidth, Math.round(size.getWidth())));
+                        sizes[page * 2 + 1] = Math.max(1, Math.min(cellHeight, Math.round(size.getHeight())));
+                    }
+                }
+            }
+        } catch (final Throwable t) {
+            Log.e(TAG, "Cannot open thumbnails", t);
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (onErrorListener != null) {
+                        onErrorListener.onError(t);
+                    }
+                }
+            });
+            return;
+        }
+        final int count;
+        synchronized (lock) {
+            count = pagesCount;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (onThumbnailListener != null && !closed) {
+                    onThumbnailListener.onThumbnailsOpened(count);
+                }
+            }
+        });
+        scheduleRender();
+    }
+
+    private void openDocument() throws IOException {
+        if (pdfFile != null) {
+            return;
+        }
+        DocumentCache.Entry documentEntry = DocumentCache.getInstance()
+                .acquire(context, documentSource, backend, password);
+        // every page fitted in the cell, so page sizes are thumbnail sizes
+        pdfFile = new PdfFile(documentEntry, FitPolicy.BOTH, userPages, true, 0, false, true, SpreadMode.NONE);
+        pdfFile.measurePageSizes();
+        pdfFile.recalculatePageSizes(new Size(cellWidth, cellHeight));
+    }
+
+    /** Render one page and schedule the next, so atlas loads requested meanwhile are not delayed */
+    private void renderNext() {
+        int page;
+        synchronized (lock) {
+            if (closed || sizes == null) {
+                return;
+            }
+            page = nextPage();
+        }
+        if (page == -1) {
+            saveAll();
+            return;
+        }
+        try {
+            openDocument();
+            renderPage(page);
+        } catch (Exception e) {
+            Log.w(TAG, "Cannot render thumbnail of page " + page, e);
+            // marked rendered anyway, so a broken page is not retried forever
+            synchronized (lock) {
+                rendered.set(page);
+            }
+        }
+        scheduleRender();
+    }
+
+    /**
+     * @return requested page not rendered yet, then any such page after the requested ones, or -1.
+     * Without persistence only requested pages are rendered, others would be lost on atlas eviction.
+     */
+    private int nextPage() {
+        int first = Math.max(0, requestFirst);
+        int last = Math.min(pagesCount - 1, requestLast);
+        int page = rendered.nextClearBit(first);
+        if (page <= last) {
+            return page;
+        }
+        if (directory == null) {
+            return -1;
+        }
+        page = rendered.nextClearBit(last + 1);
+        if (page < pagesCount) {
+            return page;
+        }
+        page = rendered.nextClearBit(0);
+        return page < pagesCount ? page : -1;
+    }
+
+    private void renderPage(int page) {
+        int index = page / pageSlots();
+        Atlas atlas = getAtlasForRendering(index);
+        int width, height;
+        synchronized (lock) {
+            width = sizes[page * 2];
+            height = sizes[page * 2 + 1];
+            slotBounds(page, destination);
+        }
+        pdfFile.openPage(page);
+        if (!pdfFile.pageHasError(page)) {
+            if (scratch == null) {
+                scratch = Bitmap.createBitmap(cellWidth, cellHeight, bitmapConfig());
+            }
+            renderBounds.set(0, 0, width, height);
+            pdfFile.renderPageBitmap(scratch, page, renderBounds, annotationRendering);
+            new Canvas(atlas.bitmap).drawBitmap(scratch, renderBounds, destination, null);
+        }
+        synchronized (lock) {
+            rendered.set(page);
+            atlas.dirty = true;
+        }
+        notifyReady(page, page);
+        if (isAtlasComplete(index)) {
+            saveAtlas(index, atlas);
+            writeIndex();
+        }
+    }
+
+    private Atlas getAtlasForRendering(int index) {
+        synchronized (lock) {
+            Atlas atlas = atlases.get(index);
+            if (atlas != null) {
+                return atlas;
+            }
+        }
+        Bitmap bitmap = readAtlas(index);
+        if (bitmap == null) {
+            bitmap = Bitmap.createBitmap(columns * cellWidth, rows * cellHeight, bitmapConfig());
+            bitmap.eraseColor(Color.WHITE);
+        }
+        Atlas atlas = new Atlas(bitmap);
+        putAtlas(index, atlas);
+        return atlas;
+    }
+
+    /** Keep atlas in memory, evicted atlases are saved so their pages stay drawable */
+    private void putAtlas(int index, Atlas atlas) {
+        List<Map.Entry<Integer, Atlas>> evicted = new ArrayList<>();
+        synchronized (lock) {
+            atlases.put(index, atlas);
+            Iterator<Map.Entry<Integer, Atlas>> iterator = atlases.entrySet().iterator();
+            while (atlases.size() - evicted.size() > Math.max(1, Constants.Cache.THUMBNAIL_ATLASES_CACHE_SIZE)) {
+                Map.Entry<Integer, Atlas> eldest = iterator.next();
+                evicted.add(new AbstractMap.SimpleEntry<>(eldest));
+            }
+        }
+        for (Map.Entry<Integer, Atlas> entry : evicted) {
+            // saved before it is removed, so drawing doesn't try to load it from disk meanwhile
+            boolean lost = entry.getValue().dirty && !saveAtlas(entry.getKey(), entry.getValue());
+            synchronized (lock) {
+                atlases.remove(entry.getKey());
+                if (lost) {
+                    // pages of a dropped unsaved atlas must be rendered again
+                    int first = entry.getKey() * pageSlots();
+                    rendered.clear(first, Math.min(pagesCount, first + pageSlots()));
+                }
+            }
+        }
+        if (!evicted.isEmpty()) {
+            writeIndex();
+        }
+    }
+
+    private void loadAtlas(int index) {
+        synchronized (lock) {
+            loadingAtlases.clear(index);
+            if (closed || atlases.containsKey(index)) {
+                return;
+            }
+        }
+        Bitmap bitmap = readAtlas(index);
+        if (bitmap == null) {
+            return;
+        }
+        putAtlas(index, new Atlas(bitmap));
+        int first = index * pageSlots();
+        int last;
+        synchronized (lock) {
+            last = Math.min(pagesCount, first + pageSlots()) - 1;
+        }
+        notifyReady(first, last);
+    }
+
+    private Bitmap readAtlas(int index) {
+        File file = atlasFile(index);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = bitmapConfig();
+        // rendering continues into loaded atlases
+        options.inMutable = true;
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+        if (bitmap == null) {
+            Log.w(TAG, "Cannot read thumbnail atlas " + file);
+        }
+        return bitmap;
+    }
+
+    private boolean isAtlasComplete(int index) {
+        synchronized (lock) {
+            int first = index * pageSlots();
+            int end = Math.min(pagesCount, first + pageSlots());
+            return rendered.nextClearBit(first) >= end;
+        }
+    }
+
+    private void notifyReady(final int firstPage, final int lastPage) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (onThumbnailListener != null && !closed) {
+                    onThumbnailListener.onThumbnailsReady(firstPage, lastPage);
+                }
+            }
+        });
+    }
+
+    private Bitmap.Config bitmapConfig() {
+        return bestQuality ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565;
+    }
+
+    private File atlasFile(int index) {
+        return directory != null ? new File(directory, "atlas-" + index + ".png") : null;
+    }
+
+    private void saveAll() {
+        List<Map.Entry<Integer, Atlas>> entries;
+        synchronized (lock) {
+            entries = new ArrayList<>(atlases.entrySet());
+        }
+        boolean saved = false;
+        for (Map.Entry<Integer, Atlas> entry : entries) {
+            saved |= saveAtlas(entry.getKey(), entry.getValue());
+        }
+        if (saved) {
+            writeIndex();
+        }
+    }
+
+    /** @return true if atlas had unsaved pages and was saved */
+    private boolean saveAtlas(int index, Atlas atlas) {
+        File file = atlasFile(index);
+        if (file == null || !atlas.dirty) {
+            return false;
+        }
+        File temp = new File(directory, file.getName() + ".tmp");
+        OutputStream out = null;
+        try {
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            out = new BufferedOutputStream(new FileOutputStream(temp));
+            atlas.bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot rename " + temp);
+            }
+            atlas.dirty = false;
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot save thumbnail atlas", e);
+            return false;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /** Save page sizes and pages whose atlases are saved, so reopening doesn't need the document */
+    private void writeIndex() {
+        if (directory == null) {
+            return;
+        }
+        File temp = new File(directory, "index.tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            synchronized (lock) {
+                out.writeInt(columns);
+                out.writeInt(rows);
+                out.writeInt(pagesCount);
+                for (int page = 0; page < pagesCount; page++) {
+                    Atlas atlas = atlases.get(page / pageSlots());
+                    boolean saved = rendered.get(page) && (atlas == null || !atlas.dirty);
+                    out.writeShort(sizes[page * 2]);
+                    out.writeShort(sizes[page * 2 + 1]);
+                    out.writeBoolean(saved);
+                }
+            }
+            out.close();
+            out = null;
+            if (!temp.renameTo(new File(directory, "index"))) {
+                throw new IOException("Cannot rename " + temp);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot save thumbnail index", e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /** @return true if page sizes and saved pages were read */
+    private boolean readIndex() {
+        File file = directory != null ? new File(directory, "index") : null;
+        if (file == null || !file.exists()) {
+            return false;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION
+                    || in.readInt() != columns || in.readInt() != rows) {
+                return false;
+            }
+            int count = in.readInt();
+            int[] readSizes = new int[count * 2];
+            BitSet saved = new BitSet(count);
+            for (int page = 0; page < count; page++) {
+                readSizes[page * 2] = in.readShort();
+                readSizes[page * 2 + 1] = in.readShort();
+                saved.set(page, in.readBoolean());
+            }
+            synchronized (lock) {
+                pagesCount = count;
+                sizes = readSizes;
+                rendered.or(saved);
+            }
+            return true;
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read thumbnail index", e);
+            return false;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void release() {
+        saveAll();
+        synchronized (lock) {
+            // not recycled, the main thread may still draw them until it sees the closed flag
+            atlases.clear();
+        }
+        if (pdfFile != null) {
+            pdfFile.dispose();
+            pdfFile = null;
+        }
+        if (scratch != null) {
+            scratch.recycle();
+            scratch = null;
+        }
+        thread.quit();
+    }
+
+    public static class Builder {
+
+        private final Context context;
+
+        private final DocumentSource documentSource;
+
+        private RenderBackend backend = PdfiumBackend.getInstance();
+
+        private int[] pageNumbers = null;
+
+        private String password = null;
+
+        private int cellWidth = 120;
+
+        private int cellHeight = 160;
+
+        private boolean bestQuality = false;
+
+        private boolean annotationRendering = false;
+
+        private boolean persist = true;
+
+        private OnThumbnailListener onThumbnailListener;
+
+        private OnErrorListener onErrorListener;
+
+        private Builder(Context context, DocumentSource documentSource) {
+            this.context = context.getApplicationContext();
+            this.documentSource = documentSource;
+        }
+
+        /** Size thumbnails are fitted in, in px */
+        public Builder cellSize(int width, int height) {
+            if (width <= 0 || height <= 0 || width > Constants.THUMBNAIL_ATLAS_SIZE
+                    || height > Constants.THUMBNAIL_ATLAS_SIZE) {
+                throw new IllegalArgumentException("Cell size must be positive and fit in an atlas");
+            }
+            this.cellWidth = width;
+            this.cellHeight = height;
+            return this;
+        }
+
+        /** Backend used to open and render the document, pdfium by default */
+        public Builder backend(RenderBackend backend) {
+            this.backend = backend;
+            return this;
+        }
+
+        public Builder pages(int... pageNumbers) {
+            this.pageNumbers = pageNumbers;
+            return this;
+        }
+
+        public Builder password(String password) {
+            this.password = password;
+            return this;
+        }
+
+        public Builder useBestQuality(boolean bestQuality) {
+            this.bestQuality = bestQuality;
+            return this;
+        }
+
+        public Builder enableAnnotationRendering(boolean annotationRendering) {
+            this.annotationRendering = annotationRendering;
+            return this;
+        }
+
+        /** Save atlases of cacheable sources to the cache directory, enabled by default */
+        public Builder persist(boolean persist) {
+            this.persist = persist;
+            return this;
+        }
+
+        public Builder onThumbnail(OnThumbnailListener onThumbnailListener) {
+            this.onThumbnailListener = onThumbnailListener;
+            return this;
+        }
+
+        public Builder onError(OnErrorListener onErrorListener) {
+            this.onErrorListener = onErrorListener;
+            return this;
+        }
+
+        /** Start opening the document and rendering thumbnails in the background */
+        public PdfThumbnails open() {
+            return new PdfThumbnails(this);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import com.github.barteksc.pdfviewer.util.Constants;
+
+/**
+ * Sizes of parts, thumbnails and caches used by a single {@link PDFView}, see
+ * {@link PDFView.Configurator#renderingConfig(RenderingConfig)}. Values not set on the builder are taken from
+ * {@link Constants} when the builder is created.
+ * <p>
+ * With adaptive part size, the part size is scaled by screen density and made smaller when zoomed in and larger
+ * when zoomed out. It is picked again every time zoom changes, so parts rendered at one zoom level share a grid.
+ * It is kept between the part sizes rendered in the given time, judging by the render cost measured so far,
+ * and between the sizes giving the given number of parts per screen.
+ */
+public class RenderingConfig {
+
+    /** Screen density {@link Builder#partSize(float)} is given for, xhdpi */
+    static final float REFERENCE_DENSITY = 2f;
+
+    private final float partSize;
+    private final boolean adaptivePartSize;
+    private final float minPartSize;
+    private final float maxPartSize;
+    private final int minPartsPerScreen;
+    private final int maxPartsPerScreen;
+    private final float minPartRenderMillis;
+    private final float maxPartRenderMillis;
+    private final float thumbnailRatio;
+    private final int preloadOffset;
+    private final int cacheSize;
+    private final int thumbnailsCacheSize;
+
+    private RenderingConfig(Builder builder) {
+        this.partSize = builder.partSize;
+        this.adaptivePartSize = builder.adaptivePartSize;
+        this.minPartSize = builder.minPartSize;
+        this.maxPartSize = builder.maxPartSize;
+        this.minPartsPerScreen = builder.minPartsPerScreen;
+        this.maxPartsPerScreen = builder.maxPartsPerScreen;
+        this.minPartRenderMillis = builder.minPartRenderMillis;
+        this.maxPartRenderMillis = builder.maxPartRenderMillis;
+        this.thumbnailRatio = builder.thumbnailRatio;
+        this.preloadOffset = builder.preloadOffset;
+        this.cacheSize = builder.cacheSize;
+        this.thumbnailsCacheSize = builder.thumbnailsCacheSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** @return config with values of {@link Constants} */
+    public static RenderingConfig defaults() {
+        return new Builder().build();
+    }
+
+    public float getPartSize() {
+        return partSize;
+    }
+
+    public boolean isAdaptivePartSize() {
+        return adaptivePartSize;
+    }
+
+    public float getMinPartSize() {
+        return minPartSize;
+    }
+
+    public float getMaxPartSize() {
+        return maxPartSize;
+    }
+
+    public int getMinPartsPerScreen() {
+        return minPartsPerScreen;
+    }
+
+    public int getMaxPartsPerScreen() {
+        return maxPartsPerScreen;
+    }
+
+    public float getMinPartRenderMillis() {
+        return minPartRenderMillis;
+    }
+
+    public float getMaxPartRenderMillis() {
+        return maxPartRenderMillis;
+    }
+
+    public float getThumbnailRatio() {
+        return thumbnailRatio;
+    }
+
+    public int getPreloadOffset() {
+        return preloadOffset;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public int getThumbnailsCacheSize() {
+        return thumbnailsCacheSize;
+    }
+
+    public static class Builder {
+
+        private float partSize = Constants.PART_SIZE;
+        private boolean adaptivePartSize = true;
+        private float minPartSize = 128;
+        private float maxPartSize = 1024;
+        private int minPartsPerScreen = 8;
+        private int maxPartsPerScreen = 40;
+        private float minPartRenderMillis = 3;
+        private float maxPartRenderMillis = 16;
+        private float thumbnailRatio = Constants.THUMBNAIL_RATIO;
+        private int preloadOffset = Constants.PRELOAD_OFFSET;
+        private int cacheSize = Constants.Cache.CACHE_SIZE;
+        private int thumbnailsCacheSize = Constants.Cache.THUMBNAILS_CACHE_SIZE;
+
+        private Builder() {
+        }
+
+        /** Width and height of rendered parts in pixels, on xhdpi screens if part size is adaptive */
+        public Builder partSize(float partSize) {
+            this.partSize = partSize;
+            return this;
+        }
+
+        /** Adapt part size to density, zoom and render cost, {@link #partSize} is used as is if false */
+        public Builder adaptivePartSize(boolean adaptivePartSize) {
+            this.adaptivePartSize = adaptivePartSize;
+            return this;
+        }
+
+        /** Bounds of adaptive part size in pixels */
+        public Builder partSizeRange(float minPartSize, float maxPartSize) {
+            this.minPartSize = minPartSize;
+            this.maxPartSize = maxPartSize;
+            return this;
+        }
+
+        /** Bounds of the number of parts covering the whole screen with adaptive part size */
+        public Builder partsPerScreen(int minPartsPerScreen, int maxPartsPerScreen) {
+            this.minPartsPerScreen = minPartsPerScreen;
+            this.maxPartsPerScreen = maxPartsPerScreen;
+            return this;
+        }
+
+        /**
+         * Bounds of the time a single part takes to render with adaptive part size. Cheaper parts spend
+         * much of the time in the native call overhead, more expensive ones delay the first paint.
+         */
+        public Builder partRenderMillis(float minPartRenderMillis, float maxPartRenderMillis) {
+            this.minPartRenderMillis = minPartRenderMillis;
+            this.maxPartRenderMillis = maxPartRenderMillis;
+            return this;
+        }
+
+        /** Between 0 and 1, the thumbnails quality. Increasing this value may cause performance decrease */
+        public Builder thumbnailRatio(float thumbnailRatio) {
+            this.thumbnailRatio = thumbnailRatio;
+            return this;
+        }
+
+        /** Part of document above and below screen that should be preloaded, in dp */
+        public Builder preloadOffset(int preloadOffset) {
+            this.preloadOffset = preloadOffset;
+            return this;
+        }
+
+        /** Number of parts kept in memory */
+        public Builder cacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        /** Number of thumbnails kept in memory */
+        public Builder thumbnailsCacheSize(int thumbnailsCacheSize) {
+            this.thumbnailsCacheSize = thumbnailsCacheSize;
+            return this;
+        }
+
+        public RenderingConfig build() {
+            if (partSize <= 0 || minPartSize <= 0 || minPartSize > maxPartSize) {
+                throw new IllegalArgumentException("Invalid part sizes");
+            }
+            if (minPartsPerScreen <= 0 || minPartsPerScreen > maxPartsPerScreen) {
+                throw new IllegalArgumentException("Invalid number of parts per screen");
+            }
+            if (minPartRenderMillis <= 0 || minPartRenderMillis > maxPartRenderMillis) {
+                throw new IllegalArgumentException("Invalid part render time");
+            }
+            if (cacheSize <= 0 || thumbnailsCacheSize <= 0) {
+                throw new IllegalArgumentException("Cache sizes must be positive");
+            }
+            return new RenderingConfig(this);
+        }
+    }
+}
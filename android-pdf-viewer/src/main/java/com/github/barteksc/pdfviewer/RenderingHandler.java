@@ -15,18 +15,15 @@
  */
 package com.github.barteksc.pdfviewer;
 
-import android.graphics.Bitmap;
-import android.graphics.Color;
-import android.graphics.Matrix;
-import android.graphics.Rect;
 import android.graphics.RectF;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
-import android.util.Log;
+import android.os.SystemClock;
 
 import com.github.barteksc.pdfviewer.exception.PageRenderingException;
 import com.github.barteksc.pdfviewer.model.PagePart;
+import com.github.barteksc.pdfviewer.util.Tracing;
 
 /**
  * A {@link Handler} that will process incoming {@link RenderingTask} messages
@@ -39,29 +36,66 @@ class RenderingHandler extends Handler {
      */
     static final int MSG_RENDER_TASK = 1;
 
-    private static final String TAG = RenderingHandler.class.getName();
+    /** {@link Message#what} of messages loading links of page given in {@link Message#arg1} */
+    static final int MSG_LINKS_TASK = 2;
 
     private PDFView pdfView;
 
-    private RectF renderBounds = new RectF();
-    private Rect roundedRenderBounds = new Rect();
-    private Matrix renderMatrix = new Matrix();
+    private PartRenderer partRenderer = new PartRenderer();
     private boolean running = false;
 
+    /** Number of queued rendering tasks, published as a trace counter. Guarded by this */
+    private int queuedTasks = 0;
+
     RenderingHandler(Looper looper, PDFView pdfView) {
         super(looper);
         this.pdfView = pdfView;
     }
 
-    void addRenderingTask(int page, float width, float height, RectF bounds, boolean thumbnail, int cacheOrder, boolean bestQuality, boolean annotationRendering) {
-        RenderingTask task = new RenderingTask(width, height, bounds, page, thumbnail, cacheOrder, bestQuality, annotationRendering);
+    /** Queue rendering of a part, row and column of its cell in the page grid are only traced */
+    void addRenderingTask(int page, float width, float height, RectF bounds, int row, int col, boolean thumbnail, int cacheOrder, boolean bestQuality, boolean annotationRendering, boolean nightMode) {
+        RenderingTask task = new RenderingTask(width, height, bounds, row, col, page, thumbnail, cacheOrder, bestQuality, annotationRendering, nightMode);
         Message msg = obtainMessage(MSG_RENDER_TASK, task);
         sendMessage(msg);
+        queueChanged(1);
+        // marked here, the rendering thread may take the task before the loader returns
+        LoadReport loadReport = pdfView.loadReport;
+        if (loadReport != null) {
+            loadReport.mark(LoadReport.Stage.FIRST_TASK_ENQUEUED);
+        }
+    }
+
+    /** Remove all rendering tasks which didn't start yet */
+    void cancelRenderingTasks() {
+        removeMessages(MSG_RENDER_TASK);
+        synchronized (this) {
+            queuedTasks = 0;
+        }
+        Tracing.counter("PDFView: render queue", 0);
+    }
+
+    private void queueChanged(int delta) {
+        int queued;
+        synchronized (this) {
+            // a task may be taken from the queue just before it is cancelled
+            queuedTasks = Math.max(0, queuedTasks + delta);
+            queued = queuedTasks;
+        }
+        Tracing.counter("PDFView: render queue", queued);
+    }
+
+    void addLinksTask(int page) {
+        sendMessage(obtainMessage(MSG_LINKS_TASK, page, 0));
     }
 
     @Override
     public void handleMessage(Message message) {
+        if (message.what == MSG_LINKS_TASK) {
+            loadLinks(message.arg1);
+            return;
+        }
         RenderingTask task = (RenderingTask) message.obj;
+        queueChanged(-1);
         try {
             final PagePart part = proceed(task);
             if (part != null) {
@@ -86,41 +120,34 @@ class RenderingHandler extends Handler {
         }
     }
 
-    private PagePart proceed(RenderingTask renderingTask) throws PageRenderingException {
-        PdfFile pdfFile = pdfView.pdfFile;
-        pdfFile.openPage(renderingTask.page);
-
-        int w = Math.round(renderingTask.width);
-        int h = Math.round(renderingTask.height);
+    private void loadLinks(final int page) {
+        final PdfFile pdfFile = pdfView.pdfFile;
+        // links are not loaded after stop, but the page must leave pending ones
+        final PageLinks links = running ? PageLinks.load(pdfFile, page) : null;
+        pdfView.post(new Runnable() {
+            @Override
+            public void run() {
+                pdfView.onLinksLoaded(pdfFile, page, links);
+            }
+        });
+    }
 
-        if (w == 0 || h == 0 || pdfFile.pageHasError(renderingTask.page)) {
-            return null;
+    private PagePart proceed(RenderingTask renderingTask) throws PageRenderingException {
+        if (Tracing.isEnabled()) {
+            Tracing.counter("PDFView: render page", renderingTask.page);
+            Tracing.counter("PDFView: render tile column", renderingTask.col);
+            Tracing.counter("PDFView: render tile row", renderingTask.row);
         }
-
-        Bitmap render;
-        try {
-            render = Bitmap.createBitmap(w, h, renderingTask.bestQuality ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565);
-        } catch (IllegalArgumentException e) {
-            Log.e(TAG, "Cannot create bitmap", e);
-            return null;
+        long start = SystemClock.elapsedRealtimeNanos();
+        PagePart part = partRenderer.render(pdfView.pdfFile, renderingTask.page, renderingTask.width,
+                renderingTask.height, renderingTask.bounds, renderingTask.thumbnail, renderingTask.cacheOrder,
+                renderingTask.bestQuality, renderingTask.annotationRendering, renderingTask.nightMode);
+        if (part != null && !renderingTask.thumbnail) {
+            // measured cost adapts part size picked at the next zoom change
+            pdfView.onPartRendered(SystemClock.elapsedRealtimeNanos() - start,
+                    part.getRenderedBitmap().getWidth() * part.getRenderedBitmap().getHeight());
         }
-        calculateBounds(w, h, renderingTask.bounds);
-
-        pdfFile.renderPageBitmap(render, renderingTask.page, roundedRenderBounds, renderingTask.annotationRendering);
-
-        return new PagePart(renderingTask.page, render,
-                renderingTask.bounds, renderingTask.thumbnail,
-                renderingTask.cacheOrder);
-    }
-
-    private void calculateBounds(int width, int height, RectF pageSliceBounds) {
-        renderMatrix.reset();
-        renderMatrix.postTranslate(-pageSliceBounds.left * width, -pageSliceBounds.top * height);
-        renderMatrix.postScale(1 / pageSliceBounds.width(), 1 / pageSliceBounds.height());
-
-        renderBounds.set(0, 0, width, height);
-        renderMatrix.mapRect(renderBounds);
-        renderBounds.round(roundedRenderBounds);
+        return part;
     }
 
     void stop() {
@@ -137,6 +164,8 @@ class RenderingHandler extends Handler {
 
         RectF bounds;
 
+        int row, col;
+
         int page;
 
         boolean thumbnail;
@@ -147,15 +176,20 @@ class RenderingHandler extends Handler {
 
         boolean annotationRendering;
 
-        RenderingTask(float width, float height, RectF bounds, int page, boolean thumbnail, int cacheOrder, boolean bestQuality, boolean annotationRendering) {
+        boolean nightMode;
+
+        RenderingTask(float width, float height, RectF bounds, int row, int col, int page, boolean thumbnail, int cacheOrder, boolean bestQuality, boolean annotationRendering, boolean nightMode) {
             this.page = page;
             this.width = width;
             this.height = height;
             this.bounds = bounds;
+            this.row = row;
+            this.col = col;
             this.thumbnail = thumbnail;
             this.cacheOrder = cacheOrder;
             this.bestQuality = bestQuality;
             this.annotationRendering = annotationRendering;
+            this.nightMode = nightMode;
         }
     }
 }
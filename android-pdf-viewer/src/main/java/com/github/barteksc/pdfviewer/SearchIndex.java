@@ -0,0 +1,254 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inverted index of page text, built page by page in order. Every occurrence of a term keeps its page,
+ * token position and character range, so phrases are matched and highlighted without reading text again.
+ * Not thread safe.
+ */
+class SearchIndex {
+
+    private static final int MAGIC = 0x50445349;
+    private static final int VERSION = 1;
+
+    /** Occurrences of a term as page, token, start and end character, ordered by page and token */
+    private static class Postings {
+        int[] data = new int[16];
+        int size = 0;
+
+        void add(int page, int token, int start, int end) {
+            if (size + 4 > data.length) {
+                int[] grown = new int[data.length * 2];
+                System.arraycopy(data, 0, grown, 0, size);
+                data = grown;
+            }
+            data[size++] = page;
+            data[size++] = token;
+            data[size++] = start;
+            data[size++] = end;
+        }
+
+        /** @return index of the first occurrence not before given page and token */
+        int lowerBound(int page, int token) {
+            int low = 0;
+            int high = size / 4;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int midPage = data[mid * 4];
+                if (midPage < page || (midPage == page && data[mid * 4 + 1] < token)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final String fingerprint;
+    private final int pagesCount;
+    private final Map<String, Postings> terms = new HashMap<>();
+    private int indexedPages = 0;
+
+    SearchIndex(String fingerprint, int pagesCount) {
+        this.fingerprint = fingerprint;
+        this.pagesCount = pagesCount;
+    }
+
+    int getIndexedPages() {
+        return indexedPages;
+    }
+
+    boolean isComplete() {
+        return indexedPages >= pagesCount;
+    }
+
+    /** Add text of the next page to index, pages have to be added in order */
+    void addPage(String text) {
+        int page = indexedPages;
+        int token = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    postings = new Postings();
+                    terms.put(term, postings);
+                }
+                postings.add(page, token++, start, i);
+            }
+        }
+        indexedPages++;
+    }
+
+    /** Split query into terms the same way pages are split */
+    static String[] queryTerms(String query) {
+        List<String> result = new ArrayList<>();
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(query.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(query.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                result.add(query.substring(start, i).toLowerCase(Locale.ROOT));
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+    /**
+     * Find consecutive occurrences of terms on a page
+     *
+     * @param out receives start and end character of every match
+     * @return true if any match was found
+     */
+    boolean findPhrase(int page, String[] queryTerms, List<int[]> out) {
+        if (queryTerms.length == 0) {
+            return false;
+        }
+        Postings[] postings = new Postings[queryTerms.length];
+        for (int i = 0; i < queryTerms.length; i++) {
+            postings[i] = terms.get(queryTerms[i]);
+            if (postings[i] == null) {
+                return false;
+            }
+        }
+        boolean found = false;
+        Postings first = postings[0];
+        for (int i = first.lowerBound(page, 0); i < first.size / 4 && first.data[i * 4] == page; i++) {
+            int token = first.data[i * 4 + 1];
+            int lastTermEnd = first.data[i * 4 + 3];
+            boolean matches = true;
+            for (int t = 1; t < postings.length && matches; t++) {
+                Postings next = postings[t];
+                int j = next.lowerBound(page, token + t);
+                matches = j < next.size / 4 && next.data[j * 4] == page && next.data[j * 4 + 1] == token + t;
+                if (matches) {
+                    lastTermEnd = next.data[j * 4 + 3];
+                }
+            }
+            if (matches) {
+                out.add(new int[]{first.data[i * 4 + 2], lastTermEnd});
+                found = true;
+            }
+        }
+        return found;
+    }
+
+    void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(fingerprint);
+            out.writeInt(pagesCount);
+            out.writeInt(indexedPages);
+            out.writeInt(terms.size());
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                Postings postings = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeInt(postings.size);
+                for (int i = 0; i < postings.size; i++) {
+                    out.writeInt(postings.data[i]);
+                }
+            }
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Cannot write " + file);
+        }
+    }
+
+    /**
+     * @return index read from file, or null if it doesn't exist or was written for another document
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    static SearchIndex read(File file, String fingerprint, int pagesCount) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        // sizes are checked against the file, so a corrupt one cannot make huge arrays
+        long maxInts = file.length() / 4;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || !fingerprint.equals(in.readUTF()) || in.readInt() != pagesCount) {
+                return null;
+            }
+            SearchIndex index = new SearchIndex(fingerprint, pagesCount);
+            index.indexedPages = in.readInt();
+            int termsCount = in.readInt();
+            if (index.indexedPages < 0 || index.indexedPages > pagesCount || termsCount < 0
+                    || termsCount > maxInts) {
+                throw new IOException("Corrupt search index " + file);
+            }
+            long readInts = 0;
+            for (int t = 0; t < termsCount; t++) {
+                String term = in.readUTF();
+                Postings postings = new Postings();
+                postings.size = in.readInt();
+                readInts += postings.size;
+                if (postings.size < 0 || postings.size % 4 != 0 || readInts > maxInts) {
+                    throw new IOException("Corrupt search index " + file);
+                }
+                postings.data = new int[Math.max(16, postings.size)];
+                for (int i = 0; i < postings.size; i++) {
+                    postings.data[i] = in.readInt();
+                }
+                index.terms.put(term, postings);
+            }
+            return index;
+        } finally {
+            in.close();
+        }
+    }
+}
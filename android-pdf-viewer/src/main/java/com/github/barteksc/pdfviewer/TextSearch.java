@@ -0,0 +1,336 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.graphics.RectF;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import com.github.barteksc.pdfviewer.listener.OnSearchListener;
+import com.github.barteksc.pdfviewer.model.SearchResult;
+import com.github.barteksc.pdfviewer.text.PageText;
+import com.github.barteksc.pdfviewer.text.PageTextProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Indexes text of a document in the background, one page per task, and answers queries on the same thread.
+ * Queries are run on pages indexed so far and then on every newly indexed page, so results stream in
+ * while indexing continues. Index is saved to a file named after document fingerprint and resumed from it.
+ */
+class TextSearch {
+
+    private static final String TAG = TextSearch.class.getSimpleName();
+
+    /** Index is saved after this many pages, so interrupted indexing doesn't start over */
+    private static final int SAVE_INTERVAL = 50;
+
+    /** Number of page texts kept for computing match bounds */
+    private static final int TEXT_CACHE_SIZE = 8;
+
+    /** Times text of a page is requested before the page is indexed without text */
+    private static final int MAX_TEXT_ATTEMPTS = 3;
+
+    private static Executor executor;
+
+    /** A running query, cancel it to stop receiving results */
+    static class Query {
+        private final String[] terms;
+        private final OnSearchListener listener;
+        private volatile boolean cancelled = false;
+        private int pagesWithResults = 0;
+
+        Query(String[] terms, OnSearchListener listener) {
+            this.terms = terms;
+            this.listener = listener;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final PdfFile pdfFile;
+    private final PageTextProvider textProvider;
+    /** File the index is saved to, null to keep it in memory only */
+    private final File indexFile;
+    private final String fingerprint;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean cancelled = false;
+
+    /** Accessed on the search thread only */
+    private SearchIndex index;
+    private int failedAttempts = 0;
+    /** Set when a page was indexed without text, such index is not saved so the page is indexed next time */
+    private boolean hasFailedPages = false;
+    private final List<Query> queries = new ArrayList<>();
+    private final Map<Integer, PageText> texts = new LinkedHashMap<Integer, PageText>(TEXT_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, PageText> eldest) {
+            return size() > TEXT_CACHE_SIZE;
+        }
+    };
+
+    TextSearch(PdfFile pdfFile, PageTextProvider textProvider, File indexFile, String fingerprint) {
+        this.pdfFile = pdfFile;
+        this.textProvider = textProvider;
+        this.indexFile = indexFile;
+        this.fingerprint = fingerprint != null ? fingerprint : "";
+    }
+
+    /** Single thread calling page text provider, shared by search and text selection */
+    static synchronized Executor getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            r.run();
+                        }
+                    }, "PDF search");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /** Start indexing, resuming saved index if there is one */
+    void start() {
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (cancelled) {
+                    return;
+                }
+                if (indexFile != null) {
+                    index = readIndex();
+                }
+                if (index == null) {
+                    index = new SearchIndex(fingerprint, pdfFile.getPagesCount());
+                }
+                getExecutor().execute(indexNextPage);
+            }
+        });
+    }
+
+    private final Runnable indexNextPage = new Runnable() {
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+            if (index.isComplete()) {
+                finish();
+                return;
+            }
+            int page = index.getIndexedPages();
+            String pageText;
+            try {
+                PageText text = getText(page);
+                pageText = text != null ? text.getText() : "";
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot get text of page " + page, e);
+                if (++failedAttempts < MAX_TEXT_ATTEMPTS) {
+                    // queued behind other tasks, so a transient failure has a chance to pass
+                    getExecutor().execute(this);
+                    return;
+                }
+                hasFailedPages = true;
+                pageText = "";
+            }
+            failedAttempts = 0;
+            index.addPage(pageText);
+            for (Query query : queries) {
+                searchPage(query, page);
+            }
+            if (indexFile != null && index.getIndexedPages() % SAVE_INTERVAL == 0) {
+                save();
+            }
+            // one page per task, so queries don't wait for the whole document
+            getExecutor().execute(this);
+        }
+    };
+
+    private void finish() {
+        if (indexFile != null) {
+            save();
+        }
+        for (Query query : queries) {
+            complete(query);
+        }
+        queries.clear();
+    }
+
+    /** @return saved index, or null if there is none or it cannot be read, in which case it is deleted */
+    private SearchIndex readIndex() {
+        try {
+            return SearchIndex.read(indexFile, fingerprint, pdfFile.getPagesCount());
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read search index", e);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cannot read search index", e);
+        }
+        if (!indexFile.delete()) {
+            Log.w(TAG, "Cannot delete search index " + indexFile);
+        }
+        return null;
+    }
+
+    private void save() {
+        if (hasFailedPages) {
+            return;
+        }
+        try {
+            index.write(indexFile);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot save search index", e);
+        }
+    }
+
+    /** Search for a phrase, results are delivered on the main thread */
+    Query search(String phrase, OnSearchListener listener) {
+        final Query query = new Query(SearchIndex.queryTerms(phrase), listener);
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (cancelled || query.cancelled) {
+                    return;
+                }
+                // index is created by the first task, so it exists here
+                for (int page = 0; page < index.getIndexedPages(); page++) {
+                    searchPage(query, page);
+                }
+                if (index.isComplete()) {
+                    complete(query);
+                } else {
+                    queries.add(query);
+                }
+            }
+        });
+        return query;
+    }
+
+    private void searchPage(final Query query, int page) {
+        if (query.cancelled) {
+            return;
+        }
+        List<int[]> matches = new ArrayList<>();
+        if (!index.findPhrase(page, query.terms, matches)) {
+            return;
+        }
+        query.pagesWithResults++;
+        final SearchResult result = new SearchResult(page, matchBounds(page, matches));
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!cancelled && !query.cancelled) {
+                    query.listener.onSearchResult(result);
+                }
+            }
+        });
+    }
+
+    private void complete(final Query query) {
+        final int pagesWithResults = query.pagesWithResults;
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!cancelled && !query.cancelled) {
+                    query.listener.onSearchComplete(pagesWithResults);
+                }
+            }
+        });
+    }
+
+    /** Join bounds of matched characters into one rectangle per line */
+    private List<RectF> matchBounds(int page, List<int[]> matches) {
+        List<RectF> rects = new ArrayList<>();
+        PageText text;
+        try {
+            text = getText(page);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot get text of page " + page, e);
+            return rects;
+        }
+        if (text == null || !text.hasCharBounds()) {
+            return rects;
+        }
+        RectF charBounds = new RectF();
+        for (int[] match : matches) {
+            RectF line = null;
+            for (int i = match[0]; i < match[1] && i < text.getText().length(); i++) {
+                text.getCharBounds(i, charBounds);
+                if (charBounds.isEmpty()) {
+                    continue;
+                }
+                if (line != null && charBounds.top < line.bottom && charBounds.bottom > line.top) {
+                    line.union(charBounds);
+                } else {
+                    line = new RectF(charBounds);
+                    rects.add(line);
+                }
+            }
+        }
+        return rects;
+    }
+
+    /** @return text of the page, or null if it has none */
+    private PageText getText(int page) throws IOException {
+        PageText text = texts.get(page);
+        if (text == null) {
+            try {
+                text = textProvider.getPageText(pdfFile.documentPage(page));
+            } catch (RuntimeException e) {
+                // a failing provider must not kill the search thread
+                throw new IOException("Text provider failed on page " + page, e);
+            }
+            if (text != null) {
+                texts.put(page, text);
+            }
+        }
+        return text;
+    }
+
+    /** Stop indexing and all queries, pages indexed so far are saved */
+    void cancel() {
+        cancelled = true;
+        if (indexFile != null) {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (index != null && index.getIndexedPages() > 0) {
+                        save();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.graphics.Path;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+import android.util.SparseBooleanArray;
+
+import com.github.barteksc.pdfviewer.text.PageText;
+import com.github.barteksc.pdfviewer.text.PageTextProvider;
+import com.github.barteksc.pdfviewer.util.Constants;
+
+import java.io.IOException;
+
+/**
+ * Selects text of a page by long press and drag. Glyph boxes of a page are loaded once on the text thread
+ * and kept in an LRU bounded by memory, so hit-testing while dragging doesn't call the provider.
+ * All methods except loading are called on the main thread.
+ */
+class TextSelection {
+
+    private static final String TAG = TextSelection.class.getSimpleName();
+
+    private final PDFView pdfView;
+    private final PdfFile pdfFile;
+    private final PageTextProvider textProvider;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean cancelled = false;
+
+    private final LruCache<Integer, PageGlyphs> glyphs =
+            new LruCache<Integer, PageGlyphs>(Constants.Cache.GLYPHS_CACHE_SIZE_KB) {
+                @Override
+                protected int sizeOf(Integer page, PageGlyphs value) {
+                    return value.getByteSize() / 1024 + 1;
+                }
+            };
+    private final SparseBooleanArray pendingGlyphs = new SparseBooleanArray();
+
+    /** Page of the selection, -1 if nothing is selected */
+    private int page = -1;
+    /** Glyph range where selection started, kept selected while dragging */
+    private int anchorStart, anchorEnd;
+    private int start, end;
+    private final Path highlight = new Path();
+
+    /** Long press waiting for glyphs of its page, page is -1 if there is none */
+    private int pressPage = -1;
+    private float pressX, pressY;
+    /** Finger is still down, selection is reported when it is lifted */
+    private boolean pressing = false;
+
+    TextSelection(PDFView pdfView, PdfFile pdfFile, PageTextProvider textProvider) {
+        this.pdfView = pdfView;
+        this.pdfFile = pdfFile;
+        this.textProvider = textProvider;
+    }
+
+    /** Load glyph boxes of a page in the background, if they are not cached yet */
+    void requestGlyphs(final int page) {
+        if (pendingGlyphs.get(page) || glyphs.get(page) != null) {
+            return;
+        }
+        pendingGlyphs.put(page, true);
+        TextSearch.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (cancelled) {
+                    return;
+                }
+                PageGlyphs pageGlyphs = PageGlyphs.EMPTY;
+                try {
+                    pageGlyphs = PageGlyphs.create(textProvider.getPageText(pdfFile.documentPage(page)));
+                } catch (IOException e) {
+                    Log.w(TAG, "Cannot get text of page " + page, e);
+                } catch (RuntimeException e) {
+                    // a failing provider must not kill the search thread shared with text search
+                    Log.w(TAG, "Cannot get text of page " + page, e);
+                }
+                final PageGlyphs loaded = pageGlyphs;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onGlyphsLoaded(page, loaded);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onGlyphsLoaded(int page, PageGlyphs pageGlyphs) {
+        if (cancelled) {
+            return;
+        }
+        pendingGlyphs.delete(page);
+        glyphs.put(page, pageGlyphs);
+        if (pressPage == page) {
+            pressPage = -1;
+            selectWord(page, pageGlyphs, pressX, pressY);
+            if (!pressing) {
+                report();
+            }
+        }
+    }
+
+    /**
+     * Select word at a point of a page, as soon as glyphs of the page are loaded
+     *
+     * @param x horizontal position relative to page width
+     * @param y vertical position relative to page height
+     */
+    void start(int page, float x, float y) {
+        clear();
+        pressing = true;
+        PageGlyphs pageGlyphs = glyphs.get(page);
+        if (pageGlyphs != null) {
+            selectWord(page, pageGlyphs, x, y);
+        } else {
+            pressPage = page;
+            pressX = x;
+            pressY = y;
+            requestGlyphs(page);
+        }
+    }
+
+    private void selectWord(int page, PageGlyphs pageGlyphs, float x, float y) {
+        int glyph = pageGlyphs.glyphAt(x, y);
+        if (glyph == -1) {
+            return;
+        }
+        this.page = page;
+        anchorStart = pageGlyphs.wordStart(glyph);
+        anchorEnd = pageGlyphs.wordEnd(glyph);
+        select(pageGlyphs, anchorStart, anchorEnd);
+    }
+
+    /** Extend selection from the anchor word to a point, points on other pages move it to the page edge */
+    void extend(int page, float x, float y) {
+        if (this.page == -1) {
+            return;
+        }
+        if (page < this.page) {
+            x = 0;
+            y = 0;
+        } else if (page > this.page) {
+            x = 1;
+            y = 1;
+        }
+        PageGlyphs pageGlyphs = glyphs.get(this.page);
+        if (pageGlyphs == null) {
+            return;
+        }
+        int glyph = pageGlyphs.glyphAt(x, y);
+        if (glyph >= anchorStart) {
+            select(pageGlyphs, anchorStart, Math.max(anchorEnd, glyph + 1));
+        } else {
+            select(pageGlyphs, glyph, anchorEnd);
+        }
+    }
+
+    private void select(PageGlyphs pageGlyphs, int start, int end) {
+        if (start == this.start && end == this.end && !highlight.isEmpty()) {
+            return;
+        }
+        this.start = start;
+        this.end = end;
+        highlight.rewind();
+        pageGlyphs.addSelectionPath(start, end, highlight);
+        pdfView.redraw();
+    }
+
+    /** Finger was lifted, report selected text */
+    void finish() {
+        pressing = false;
+        // a press waiting for glyphs is reported once they are loaded
+        if (pressPage == -1) {
+            report();
+        }
+    }
+
+    private void report() {
+        String text = getSelectedText();
+        if (text != null) {
+            pdfView.callbacks.callOnTextSelected(page, text);
+        }
+    }
+
+    /** @return true if there was a selection to remove */
+    boolean clear() {
+        pressPage = -1;
+        pressing = false;
+        if (page == -1) {
+            return false;
+        }
+        page = -1;
+        highlight.rewind();
+        pdfView.redraw();
+        pdfView.callbacks.callOnTextSelectionCleared();
+        return true;
+    }
+
+    /** @return selection highlight of a page in page relative coordinates, or null */
+    Path getHighlight(int page) {
+        return page == this.page ? highlight : null;
+    }
+
+    String getSelectedText() {
+        PageGlyphs pageGlyphs = page != -1 ? glyphs.get(page) : null;
+        return pageGlyphs != null ? pageGlyphs.getText(start, end) : null;
+    }
+
+    int getPage() {
+        return page;
+    }
+
+    void cancel() {
+        cancelled = true;
+        glyphs.evictAll();
+        pendingGlyphs.clear();
+    }
+}
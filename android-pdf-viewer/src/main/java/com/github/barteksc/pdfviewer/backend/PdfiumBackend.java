@@ -0,0 +1,133 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.backend;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+import com.github.barteksc.pdfviewer.util.Tracing;
+import com.shockwave.pdfium.PdfDocument;
+import com.shockwave.pdfium.PdfiumCore;
+import com.shockwave.pdfium.util.Size;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Default backend rendering with PdfiumAndroid. One {@link PdfiumCore} is shared by the process and created
+ * on first use. Creating it loads native libraries, so it should be obtained on a background thread.
+ */
+public class PdfiumBackend implements RenderBackend {
+
+    private static final PdfiumBackend INSTANCE = new PdfiumBackend();
+
+    private PdfiumCore pdfiumCore;
+
+    private PdfiumBackend() {
+        // Prevents instantiation, the core is shared
+    }
+
+    public static PdfiumBackend getInstance() {
+        return INSTANCE;
+    }
+
+    /** @return shared core, created and blocking the caller if this is the first call */
+    public synchronized PdfiumCore getCore(Context context) {
+        if (pdfiumCore == null) {
+            Tracing.begin("PDFView: create PdfiumCore");
+            try {
+                pdfiumCore = new PdfiumCore(context.getApplicationContext());
+            } finally {
+                Tracing.end();
+            }
+        }
+        return pdfiumCore;
+    }
+
+    public synchronized boolean isInitialized() {
+        return pdfiumCore != null;
+    }
+
+    @Override
+    public RenderDocument open(Context context, DocumentSource source, String password) throws IOException {
+        PdfiumCore core = getCore(context);
+        return new PdfiumDocument(core, source.createDocument(context, core, password));
+    }
+
+    @Override
+    public String getCacheKey() {
+        return "pdfium";
+    }
+
+    private static class PdfiumDocument implements RenderDocument {
+
+        private final PdfiumCore core;
+        private final PdfDocument document;
+
+        PdfiumDocument(PdfiumCore core, PdfDocument document) {
+            this.core = core;
+            this.document = document;
+        }
+
+        @Override
+        public int getPageCount() {
+            return core.getPageCount(document);
+        }
+
+        @Override
+        public Size getPageSize(int page) {
+            return core.getPageSize(document, page);
+        }
+
+        @Override
+        public void openPage(int page) {
+            core.openPage(document, page);
+        }
+
+        @Override
+        public void renderPage(Bitmap bitmap, int page, int startX, int startY, int width, int height,
+                               boolean annotationRendering) {
+            core.renderPageBitmap(document, bitmap, page, startX, startY, width, height, annotationRendering);
+        }
+
+        @Override
+        public PdfDocument.Meta getMetadata() {
+            return core.getDocumentMeta(document);
+        }
+
+        @Override
+        public List<PdfDocument.Bookmark> getTableOfContents() {
+            return core.getTableOfContents(document);
+        }
+
+        @Override
+        public List<PdfDocument.Link> getPageLinks(int page) {
+            return core.getPageLinks(document, page);
+        }
+
+        @Override
+        public RectF mapRectToDevice(int page, int startX, int startY, int sizeX, int sizeY, RectF rect) {
+            return core.mapRectToDevice(document, page, startX, startY, sizeX, sizeY, 0, rect);
+        }
+
+        @Override
+        public void close() {
+            core.closeDocument(document);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.backend;
+
+import android.content.Context;
+
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+
+import java.io.IOException;
+
+/**
+ * Opens documents for rendering. {@link PdfiumBackend} is used by default, other implementations can render
+ * with another library or, like {@link SyntheticBackend}, generate pages for deterministic performance tests.
+ * <p>
+ * Implementations must be thread safe, documents are opened on background threads.
+ * Opened documents are shared by views showing the same source with backends of the same {@link #getCacheKey()}.
+ */
+public interface RenderBackend {
+
+    /**
+     * Open document from the source, called on a background thread
+     *
+     * @throws IOException if the source cannot be read or is not supported by this backend
+     */
+    RenderDocument open(Context context, DocumentSource source, String password) throws IOException;
+
+    /**
+     * @return key which is equal for backends opening a source into the same pages, it identifies cached
+     * documents, preloaded parts and thumbnails stored on disk
+     */
+    String getCacheKey();
+}
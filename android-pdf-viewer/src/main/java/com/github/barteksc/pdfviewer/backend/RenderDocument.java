@@ -0,0 +1,61 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.backend;
+
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+
+import com.shockwave.pdfium.PdfDocument;
+import com.shockwave.pdfium.util.Size;
+
+import java.util.List;
+
+/**
+ * Document opened by a {@link RenderBackend}. Pages are indexed as in the document, before applying
+ * page selection of the view. Methods are called on rendering and loading threads, implementations
+ * must serialize access to non thread safe libraries themselves.
+ * <p>
+ * Metadata, outline and links use model classes of PdfiumAndroid, which are part of the public API of the view.
+ */
+public interface RenderDocument {
+
+    int getPageCount();
+
+    /** @return page size in pixels at screen density */
+    Size getPageSize(int page);
+
+    /** Prepare page for rendering, called once per page before it is rendered */
+    void openPage(int page);
+
+    /**
+     * Render page scaled to given size into the bitmap, at given position. Pixels outside of the page may be
+     * overwritten.
+     */
+    void renderPage(Bitmap bitmap, int page, int startX, int startY, int width, int height,
+                    boolean annotationRendering);
+
+    /** @return document metadata, or null if it is not available */
+    PdfDocument.Meta getMetadata();
+
+    List<PdfDocument.Bookmark> getTableOfContents();
+
+    List<PdfDocument.Link> getPageLinks(int page);
+
+    /** Map rectangle in page coordinates to a page rendered with given position and size */
+    RectF mapRectToDevice(int page, int startX, int startY, int sizeX, int sizeY, RectF rect);
+
+    void close();
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.backend;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+import com.shockwave.pdfium.PdfDocument;
+import com.shockwave.pdfium.util.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Backend generating pages instead of reading them, for deterministic performance tests.
+ * Any source opens a document with the given number of pages, sizes are taken from the given list in turn
+ * and every page is drawn as lines of "text" bars. Rendering can be made to take a fixed time,
+ * to simulate a slow document without depending on its content.
+ */
+public class SyntheticBackend implements RenderBackend {
+
+    private static final int LINES_PER_PAGE = 40;
+
+    private final int pageCount;
+    private final Size[] pageSizes;
+    private final long renderCostNanos;
+
+    /**
+     * @param pageCount       number of pages of every opened document
+     * @param renderCostNanos minimum time rendering of a page takes, 0 to render as fast as possible
+     * @param pageSizes       sizes of pages in pixels at screen density, repeated for following pages
+     */
+    public SyntheticBackend(int pageCount, long renderCostNanos, Size... pageSizes) {
+        if (pageSizes.length == 0) {
+            throw new IllegalArgumentException("At least one page size is needed");
+        }
+        this.pageCount = pageCount;
+        this.renderCostNanos = renderCostNanos;
+        this.pageSizes = pageSizes;
+    }
+
+    @Override
+    public RenderDocument open(Context context, DocumentSource source, String password) {
+        return new SyntheticDocument();
+    }
+
+    @Override
+    public String getCacheKey() {
+        // backends with other pages must not share cached documents
+        StringBuilder key = new StringBuilder("synthetic:").append(pageCount).append(':').append(renderCostNanos);
+        for (Size size : pageSizes) {
+            key.append(':').append(size.getWidth()).append('x').append(size.getHeight());
+        }
+        return key.toString();
+    }
+
+    private class SyntheticDocument implements RenderDocument {
+
+        private final Paint paint = new Paint();
+
+        @Override
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        @Override
+        public Size getPageSize(int page) {
+            return pageSizes[page % pageSizes.length];
+        }
+
+        @Override
+        public void openPage(int page) {
+            if (page < 0 || page >= pageCount) {
+                throw new IllegalArgumentException("Page " + page + " does not exist");
+            }
+        }
+
+        @Override
+        public synchronized void renderPage(Bitmap bitmap, int page, int startX, int startY, int width, int height,
+                                            boolean annotationRendering) {
+            long start = System.nanoTime();
+            Size size = getPageSize(page);
+            Canvas canvas = new Canvas(bitmap);
+            canvas.drawColor(Color.WHITE);
+            canvas.translate(startX, startY);
+            canvas.scale((float) width / size.getWidth(), (float) height / size.getHeight());
+
+            float margin = size.getWidth() / 10f;
+            float lineHeight = (size.getHeight() - 2 * margin) / LINES_PER_PAGE;
+            paint.setColor(Color.DKGRAY);
+            for (int line = 0; line < LINES_PER_PAGE; line++) {
+                // line length depends on page and line, so neighbouring pages differ
+                float length = (size.getWidth() - 2 * margin) * (0.5f + ((page * 31 + line * 17) % 50) / 100f);
+                float top = margin + line * lineHeight;
+                canvas.drawRect(margin, top, margin + length, top + lineHeight * 0.6f, paint);
+            }
+
+            while (System.nanoTime() - start < renderCostNanos) {
+                // simulate native rendering which keeps the thread busy
+            }
+        }
+
+        @Override
+        public PdfDocument.Meta getMetadata() {
+            return null;
+        }
+
+        @Override
+        public List<PdfDocument.Bookmark> getTableOfContents() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<PdfDocument.Link> getPageLinks(int page) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public RectF mapRectToDevice(int page, int startX, int startY, int sizeX, int sizeY, RectF rect) {
+            // page coordinates have origin at the bottom left corner, like in PDF
+            Size size = getPageSize(page);
+            float scaleX = (float) sizeX / size.getWidth();
+            float scaleY = (float) sizeY / size.getHeight();
+            return new RectF(startX + rect.left * scaleX, startY + (size.getHeight() - rect.top) * scaleY,
+                    startX + rect.right * scaleX, startY + (size.getHeight() - rect.bottom) * scaleY);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
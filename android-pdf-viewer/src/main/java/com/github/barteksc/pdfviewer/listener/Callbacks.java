@@ -17,6 +17,7 @@ package com.github.barteksc.pdfviewer.listener;
 
 import android.view.MotionEvent;
 
+import com.github.barteksc.pdfviewer.LoadReport;
 import com.github.barteksc.pdfviewer.link.LinkHandler;
 import com.github.barteksc.pdfviewer.model.LinkTapEvent;
 
@@ -27,6 +28,16 @@ public class Callbacks {
      */
     private OnLoadCompleteListener onLoadCompleteListener;
 
+    /**
+     * Call back object to call when the PDF passes a loading stage
+     */
+    private OnLoadProgressListener onLoadProgressListener;
+
+    /**
+     * Call back object to call when timings of document loading are known
+     */
+    private OnLoadReportListener onLoadReportListener;
+
     /**
      * Call back object to call when document loading error occurs
      */
@@ -74,6 +85,11 @@ public class Callbacks {
      */
     private LinkHandler linkHandler;
 
+    /**
+     * Call back object to call when text is selected
+     */
+    private OnTextSelectionListener onTextSelectionListener;
+
     public void setOnLoadComplete(OnLoadCompleteListener onLoadCompleteListener) {
         this.onLoadCompleteListener = onLoadCompleteListener;
     }
@@ -84,6 +100,26 @@ public class Callbacks {
         }
     }
 
+    public void setOnLoadProgress(OnLoadProgressListener onLoadProgressListener) {
+        this.onLoadProgressListener = onLoadProgressListener;
+    }
+
+    public void callOnLoadProgress(OnLoadProgressListener.Stage stage) {
+        if (onLoadProgressListener != null) {
+            onLoadProgressListener.onLoadProgress(stage);
+        }
+    }
+
+    public void setOnLoadReport(OnLoadReportListener onLoadReportListener) {
+        this.onLoadReportListener = onLoadReportListener;
+    }
+
+    public void callOnLoadReport(LoadReport report) {
+        if (onLoadReportListener != null) {
+            onLoadReportListener.onLoadReport(report);
+        }
+    }
+
     public void setOnError(OnErrorListener onErrorListener) {
         this.onErrorListener = onErrorListener;
     }
@@ -177,4 +213,20 @@ public class Callbacks {
             linkHandler.handleLinkEvent(event);
         }
     }
+
+    public void setOnTextSelection(OnTextSelectionListener onTextSelectionListener) {
+        this.onTextSelectionListener = onTextSelectionListener;
+    }
+
+    public void callOnTextSelected(int page, String text) {
+        if (onTextSelectionListener != null) {
+            onTextSelectionListener.onTextSelected(page, text);
+        }
+    }
+
+    public void callOnTextSelectionCleared() {
+        if (onTextSelectionListener != null) {
+            onTextSelectionListener.onTextSelectionCleared();
+        }
+    }
 }
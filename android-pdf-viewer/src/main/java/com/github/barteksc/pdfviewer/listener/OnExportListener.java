@@ -0,0 +1,46 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.listener;
+
+import com.github.barteksc.pdfviewer.PdfExporter;
+
+/**
+ * Implement this interface to receive events from {@link PdfExporter}, called on the main thread
+ */
+public interface OnExportListener {
+
+    /**
+     * Called as pages are exported, not necessarily for every page
+     *
+     * @param donePages  number of pages exported or failed so far
+     * @param totalPages number of pages to export
+     */
+    void onExportProgress(int donePages, int totalPages);
+
+    /**
+     * Called when all workers finished, also after cancellation
+     *
+     * @param report counts and throughput of the export
+     */
+    void onExportComplete(PdfExporter.Report report);
+
+    /**
+     * Called if the document cannot be opened, the export is cancelled
+     *
+     * @param t Throwable with error
+     */
+    void onExportError(Throwable t);
+}
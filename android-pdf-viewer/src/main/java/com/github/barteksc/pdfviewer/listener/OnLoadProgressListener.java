@@ -0,0 +1,39 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.listener;
+
+/**
+ * Implement this interface to receive events from PDFView
+ * when document loading passes one of its stages
+ */
+public interface OnLoadProgressListener {
+
+    enum Stage {
+        /** Document has been opened by native code */
+        OPENED,
+        /** Sizes of all pages have been read */
+        SIZES_MEASURED,
+        /** Page sizes and offsets have been calculated for the view */
+        LAYOUT_READY
+    }
+
+    /**
+     * Called on main thread after every stage of document loading
+     *
+     * @param stage finished stage
+     */
+    void onLoadProgress(Stage stage);
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.listener;
+
+import com.github.barteksc.pdfviewer.LoadReport;
+
+/**
+ * Implement this interface to receive timings of document loading from PDFView
+ */
+public interface OnLoadReportListener {
+
+    /**
+     * Called once per loaded document, after the first frame with content was drawn
+     *
+     * @param report timestamps of loading stages
+     */
+    void onLoadReport(LoadReport report);
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.listener;
+
+import com.github.barteksc.pdfviewer.model.SearchResult;
+
+/**
+ * Implement this interface to receive results of text search, called on the main thread
+ */
+public interface OnSearchListener {
+
+    /**
+     * Called for every page with matches, while the document is still being indexed
+     *
+     * @param result matches on a single page
+     */
+    void onSearchResult(SearchResult result);
+
+    /**
+     * Called when all pages were searched
+     *
+     * @param pagesWithResults number of pages with matches
+     */
+    void onSearchComplete(int pagesWithResults);
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.listener;
+
+/**
+ * Implement this interface to receive events from PDFView
+ * when text is selected by long press and drag
+ */
+public interface OnTextSelectionListener {
+
+    /**
+     * Called when the user lifts the finger after selecting text
+     *
+     * @param page page index of the selection
+     * @param text selected text
+     */
+    void onTextSelected(int page, String text);
+
+    /**
+     * Called when the selection is removed, e.g. by a single tap
+     */
+    void onTextSelectionCleared();
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.listener;
+
+/**
+ * Implement this interface to receive events from {@link com.github.barteksc.pdfviewer.PdfThumbnails},
+ * called on the main thread
+ */
+public interface OnThumbnailListener {
+
+    /**
+     * Called when number and sizes of thumbnails are known
+     *
+     * @param pagesCount number of pages
+     */
+    void onThumbnailsOpened(int pagesCount);
+
+    /**
+     * Called when thumbnails of a range of pages can be drawn, after rendering or loading from disk
+     *
+     * @param firstPage first page of the range
+     * @param lastPage  last page of the range, inclusive
+     */
+    void onThumbnailsReady(int firstPage, int lastPage);
+}
@@ -30,13 +30,22 @@ public class PagePart {
 
     private int cacheOrder;
 
+    /** True if colors were inverted when rendering */
+    private boolean nightMode;
+
     public PagePart(int page, Bitmap renderedBitmap, RectF pageRelativeBounds, boolean thumbnail, int cacheOrder) {
+        this(page, renderedBitmap, pageRelativeBounds, thumbnail, cacheOrder, false);
+    }
+
+    public PagePart(int page, Bitmap renderedBitmap, RectF pageRelativeBounds, boolean thumbnail, int cacheOrder,
+                    boolean nightMode) {
         super();
         this.page = page;
         this.renderedBitmap = renderedBitmap;
         this.pageRelativeBounds = pageRelativeBounds;
         this.thumbnail = thumbnail;
         this.cacheOrder = cacheOrder;
+        this.nightMode = nightMode;
     }
 
     public int getCacheOrder() {
@@ -59,6 +68,10 @@ public class PagePart {
         return thumbnail;
     }
 
+    public boolean isNightMode() {
+        return nightMode;
+    }
+
     public void setCacheOrder(int cacheOrder) {
         this.cacheOrder = cacheOrder;
     }
@@ -71,6 +84,7 @@ public class PagePart {
 
         PagePart part = (PagePart) obj;
         return part.getPage() == page
+                && part.isNightMode() == nightMode
                 && part.getPageRelativeBounds().left == pageRelativeBounds.left
                 && part.getPageRelativeBounds().right == pageRelativeBounds.right
                 && part.getPageRelativeBounds().top == pageRelativeBounds.top
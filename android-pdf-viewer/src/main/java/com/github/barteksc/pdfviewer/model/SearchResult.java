@@ -0,0 +1,45 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.model;
+
+import android.graphics.RectF;
+
+import java.util.List;
+
+/**
+ * Occurrences of a searched phrase on a single page
+ */
+public class SearchResult {
+
+    private final int page;
+
+    private final List<RectF> rects;
+
+    public SearchResult(int page, List<RectF> rects) {
+        this.page = page;
+        this.rects = rects;
+    }
+
+    /** @return page index, as shown in the view */
+    public int getPage() {
+        return page;
+    }
+
+    /** @return bounds of the matched text relative to page size, empty if character bounds are not known */
+    public List<RectF> getRects() {
+        return rects;
+    }
+}
@@ -26,7 +26,7 @@ import com.shockwave.pdfium.PdfiumCore;
 import java.io.File;
 import java.io.IOException;
 
-public class AssetSource implements DocumentSource {
+public class AssetSource implements CacheableSource {
 
     private final String assetName;
 
@@ -36,8 +36,17 @@ public class AssetSource implements DocumentSource {
 
     @Override
     public PdfDocument createDocument(Context context, PdfiumCore core, String password) throws IOException {
+        return core.newDocument(openFileDescriptor(context), password);
+    }
+
+    @Override
+    public ParcelFileDescriptor openFileDescriptor(Context context) throws IOException {
         File f = FileUtils.fileFromAsset(context, assetName);
-        ParcelFileDescriptor pfd = ParcelFileDescriptor.open(f, ParcelFileDescriptor.MODE_READ_ONLY);
-        return core.newDocument(pfd, password);
+        return ParcelFileDescriptor.open(f, ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    @Override
+    public String getCacheKey() {
+        return "asset:" + assetName;
     }
 }
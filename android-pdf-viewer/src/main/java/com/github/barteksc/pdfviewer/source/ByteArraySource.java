@@ -16,10 +16,14 @@
 package com.github.barteksc.pdfviewer.source;
 
 import android.content.Context;
+import android.os.ParcelFileDescriptor;
 
+import com.github.barteksc.pdfviewer.util.FileUtils;
 import com.shockwave.pdfium.PdfDocument;
 import com.shockwave.pdfium.PdfiumCore;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 
 public class ByteArraySource implements DocumentSource {
@@ -34,4 +38,16 @@ public class ByteArraySource implements DocumentSource {
     public PdfDocument createDocument(Context context, PdfiumCore core, String password) throws IOException {
         return core.newDocument(data, password);
     }
+
+    @Override
+    public ParcelFileDescriptor openFileDescriptor(Context context) throws IOException {
+        File tempFile = File.createTempFile("pdfview-bytes", ".pdf", context.getCacheDir());
+        try {
+            FileUtils.copyStream(new ByteArrayInputStream(data), tempFile);
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+        return FileUtils.openAndDelete(tempFile);
+    }
 }
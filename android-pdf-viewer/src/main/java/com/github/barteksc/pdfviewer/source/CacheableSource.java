@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2016 Bartosz Schiller.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.source;
+
+/**
+ * Source which can be identified, so a document opened from it can be kept open
+ * and shared by all views showing the same document
+ */
+public interface CacheableSource extends DocumentSource {
+
+    /**
+     * @return key which is equal for sources pointing at the same document content
+     */
+    String getCacheKey();
+}
@@ -16,6 +16,7 @@
 package com.github.barteksc.pdfviewer.source;
 
 import android.content.Context;
+import android.os.ParcelFileDescriptor;
 
 import com.shockwave.pdfium.PdfDocument;
 import com.shockwave.pdfium.PdfiumCore;
@@ -24,4 +25,14 @@ import java.io.IOException;
 
 public interface DocumentSource {
     PdfDocument createDocument(Context context, PdfiumCore core, String password) throws IOException;
+
+    /**
+     * Open document bytes for backends which don't use pdfium, e.g. one rendering with
+     * {@link android.graphics.pdf.PdfRenderer}. Called on a background thread, the caller closes the descriptor.
+     * Sources which can be read only once, like a stream, can be opened by only one of the two methods.
+     * Sources used only with pdfium don't need to implement it.
+     */
+    default ParcelFileDescriptor openFileDescriptor(Context context) throws IOException {
+        throw new IOException(getClass().getName() + " does not support opening a file descriptor");
+    }
 }
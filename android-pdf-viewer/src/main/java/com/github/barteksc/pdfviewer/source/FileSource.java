@@ -24,7 +24,7 @@ import com.shockwave.pdfium.PdfiumCore;
 import java.io.File;
 import java.io.IOException;
 
-public class FileSource implements DocumentSource {
+public class FileSource implements CacheableSource {
 
     private File file;
 
@@ -34,7 +34,17 @@ public class FileSource implements DocumentSource {
 
     @Override
     public PdfDocument createDocument(Context context, PdfiumCore core, String password) throws IOException {
-        ParcelFileDescriptor pfd = ParcelFileDescriptor.open(file, ParcelFileDescriptor.MODE_READ_ONLY);
-        return core.newDocument(pfd, password);
+        return core.newDocument(openFileDescriptor(context), password);
+    }
+
+    @Override
+    public ParcelFileDescriptor openFileDescriptor(Context context) throws IOException {
+        return ParcelFileDescriptor.open(file, ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    @Override
+    public String getCacheKey() {
+        // modified file is a different document
+        return "file:" + file.getAbsolutePath() + ":" + file.lastModified() + ":" + file.length();
     }
 }
@@ -16,16 +16,28 @@
 package com.github.barteksc.pdfviewer.source;
 
 import android.content.Context;
+import android.os.ParcelFileDescriptor;
+import android.os.SystemClock;
+import android.util.Log;
 
-import com.github.barteksc.pdfviewer.util.Util;
+import com.github.barteksc.pdfviewer.util.Constants;
+import com.github.barteksc.pdfviewer.util.FileUtils;
 import com.shockwave.pdfium.PdfDocument;
 import com.shockwave.pdfium.PdfiumCore;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
+/**
+ * Source which spills stream to a temporary file in cache directory and opens it by file descriptor,
+ * so document is never held in Java heap. Temporary file is unlinked right after opening,
+ * native code keeps reading it through the descriptor.
+ */
 public class InputStreamSource implements DocumentSource {
 
+    private static final String TAG = InputStreamSource.class.getSimpleName();
+
     private InputStream inputStream;
 
     public InputStreamSource(InputStream inputStream) {
@@ -34,6 +46,32 @@ public class InputStreamSource implements DocumentSource {
 
     @Override
     public PdfDocument createDocument(Context context, PdfiumCore core, String password) throws IOException {
-        return core.newDocument(Util.toByteArray(inputStream), password);
+        ParcelFileDescriptor pfd = openFileDescriptor(context);
+        try {
+            return core.newDocument(pfd, password);
+        } catch (IOException e) {
+            pfd.close();
+            throw e;
+        }
+    }
+
+    /** Spill the stream to a temporary file, the stream is consumed, so it can be opened only once */
+    @Override
+    public ParcelFileDescriptor openFileDescriptor(Context context) throws IOException {
+        File tempFile = File.createTempFile("pdfview-stream", ".pdf", context.getCacheDir());
+        try {
+            long start = SystemClock.elapsedRealtime();
+            long bytes = FileUtils.copyStream(inputStream, tempFile);
+            if (Constants.DEBUG_MODE) {
+                long time = Math.max(1, SystemClock.elapsedRealtime() - start);
+                Log.d(TAG, "Stream of " + bytes + " bytes spilled in " + time + " ms ("
+                        + (bytes / 1024 * 1000 / time) + " KB/s)");
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+        // native code reads the document through descriptor, file is not needed anymore
+        return FileUtils.openAndDelete(tempFile);
     }
 }
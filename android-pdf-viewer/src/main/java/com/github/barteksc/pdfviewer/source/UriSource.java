@@ -22,9 +22,10 @@ import android.os.ParcelFileDescriptor;
 import com.shockwave.pdfium.PdfDocument;
 import com.shockwave.pdfium.PdfiumCore;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 
-public class UriSource implements DocumentSource {
+public class UriSource implements CacheableSource {
 
     private Uri uri;
 
@@ -34,7 +35,21 @@ public class UriSource implements DocumentSource {
 
     @Override
     public PdfDocument createDocument(Context context, PdfiumCore core, String password) throws IOException {
+        return core.newDocument(openFileDescriptor(context), password);
+    }
+
+    /** Descriptors of some content providers are pipes, which backends needing random access cannot read */
+    @Override
+    public ParcelFileDescriptor openFileDescriptor(Context context) throws IOException {
         ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
-        return core.newDocument(pfd, password);
+        if (pfd == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        return pfd;
+    }
+
+    @Override
+    public String getCacheKey() {
+        return "uri:" + uri;
     }
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.text;
+
+import android.graphics.RectF;
+
+/**
+ * Text of a single page, optionally with bounds of every character relative to page size.
+ */
+public class PageText {
+
+    private final String text;
+
+    /** Left, top, right and bottom of every character of text, relative to page size, may be null */
+    private final float[] charBounds;
+
+    /**
+     * @param text       text of the page
+     * @param charBounds left, top, right and bottom of every character, relative to page width and height,
+     *                   4 values per character of text, or null if bounds are not known
+     */
+    public PageText(String text, float[] charBounds) {
+        if (charBounds != null && charBounds.length != text.length() * 4) {
+            throw new IllegalArgumentException("Expected 4 bounds per character");
+        }
+        this.text = text;
+        this.charBounds = charBounds;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean hasCharBounds() {
+        return charBounds != null;
+    }
+
+    /**
+     * @param index     index of character in text
+     * @param outBounds receives bounds of the character, relative to page size
+     */
+    public void getCharBounds(int index, RectF outBounds) {
+        outBounds.set(charBounds[index * 4], charBounds[index * 4 + 1],
+                charBounds[index * 4 + 2], charBounds[index * 4 + 3]);
+    }
+}
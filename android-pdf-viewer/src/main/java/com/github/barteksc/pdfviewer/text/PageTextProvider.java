@@ -0,0 +1,32 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.text;
+
+import java.io.IOException;
+
+/**
+ * Source of page text for search and text selection. The pdfium binding used for rendering
+ * doesn't expose text, so it has to be extracted by the application, e.g. with another pdfium binding.
+ * Called on background threads, one call at a time for a single view.
+ */
+public interface PageTextProvider {
+
+    /**
+     * @param documentPage page index in the document
+     * @return text of the page
+     */
+    PageText getPageText(int documentPage) throws IOException;
+}
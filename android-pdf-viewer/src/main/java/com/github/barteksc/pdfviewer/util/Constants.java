@@ -19,6 +19,12 @@ public class Constants {
 
     public static boolean DEBUG_MODE = false;
 
+    /**
+     * Emit trace sections and counters of loading and rendering, see {@link Tracing}.
+     * Set it before loading a document, so sections started on other threads are ended.
+     */
+    public static boolean TRACING = false;
+
     /** Between 0 and 1, the thumbnails quality (default 0.3). Increasing this value may cause performance decrease */
     public static float THUMBNAIL_RATIO = 0.3f;
 
@@ -32,12 +38,30 @@ public class Constants {
     /** Part of document above and below screen that should be preloaded, in dp */
     public static int PRELOAD_OFFSET = 20;
 
+    /** Width and height of bitmaps thumbnails of {@link com.github.barteksc.pdfviewer.PdfThumbnails} are packed in */
+    public static int THUMBNAIL_ATLAS_SIZE = 2048;
+
     public static class Cache {
 
         /** The size of the cache (number of bitmaps kept) */
         public static int CACHE_SIZE = 120;
 
         public static int THUMBNAILS_CACHE_SIZE = 8;
+
+        /** Number of pages whose links are kept for tap hit-testing */
+        public static int LINKS_CACHE_SIZE = 64;
+
+        /** Memory used by glyph boxes of pages kept for text selection, in kilobytes */
+        public static int GLYPHS_CACHE_SIZE_KB = 4096;
+
+        /** Number of thumbnail atlases kept in memory, others are reloaded from disk when drawn */
+        public static int THUMBNAIL_ATLASES_CACHE_SIZE = 4;
+
+        /** Number of opened documents kept when no view uses them */
+        public static int IDLE_DOCUMENTS_CACHE_SIZE = 3;
+
+        /** Time after which an opened document that no view uses is closed, in milliseconds */
+        public static long DOCUMENT_IDLE_TIMEOUT = 30000;
     }
 
     public static class Pinch {
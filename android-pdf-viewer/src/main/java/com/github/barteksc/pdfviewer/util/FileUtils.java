@@ -16,37 +16,134 @@
 package com.github.barteksc.pdfviewer.util;
 
 import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 public class FileUtils {
 
+    private static final String TAG = FileUtils.class.getSimpleName();
+
+    private static final Object assetLock = new Object();
+
+    /** Size of the direct buffer used when copying streams, large enough to keep syscalls rare */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private FileUtils() {
         // Prevents instantiation
     }
 
+    /**
+     * Get file with content of the asset. Asset is copied to cache directory at most once per
+     * installed APK version and the copy is reused on next calls. When APK is updated, copy is
+     * kept if CRC and size of the asset entry in APK didn't change.
+     */
     public static File fileFromAsset(Context context, String assetName) throws IOException {
         File outFile = new File(context.getCacheDir(), assetName + "-pdfview.pdf");
+        File stampFile = new File(context.getCacheDir(), assetName + "-pdfview.stamp");
         if (assetName.contains("/")) {
             outFile.getParentFile().mkdirs();
         }
-        copy(context.getAssets().open(assetName), outFile);
-        return outFile;
+
+        synchronized (assetLock) {
+            long updateTime = apkUpdateTime(context);
+            AssetStamp stamp = AssetStamp.read(stampFile);
+            if (stamp != null && outFile.length() == stamp.length) {
+                if (stamp.updateTime == updateTime) {
+                    return outFile;
+                }
+                // APK changed, but the asset itself may be the same
+                AssetStamp entry = AssetStamp.fromApk(context, assetName, updateTime);
+                if (entry != null && entry.crc == stamp.crc && entry.length == stamp.length) {
+                    entry.write(stampFile);
+                    return outFile;
+                }
+            }
+
+            stampFile.delete();
+            // copy to temporary file first, so an interrupted copy is never taken for a valid one
+            File tempFile = File.createTempFile("pdfview-asset", ".tmp", outFile.getParentFile());
+            try {
+                copyStream(context.getAssets().open(assetName), tempFile);
+                if (!tempFile.renameTo(outFile)) {
+                    throw new IOException("Cannot move asset copy to " + outFile);
+                }
+            } finally {
+                tempFile.delete();
+            }
+
+            AssetStamp entry = AssetStamp.fromApk(context, assetName, updateTime);
+            if (entry != null && entry.length == outFile.length()) {
+                entry.write(stampFile);
+            }
+            return outFile;
+        }
+    }
+
+    private static long apkUpdateTime(Context context) {
+        try {
+            return context.getPackageManager().getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+
+    /** Open temporary file for reading and delete it, its content stays readable until the descriptor is closed */
+    public static ParcelFileDescriptor openAndDelete(File file) throws IOException {
+        try {
+            return ParcelFileDescriptor.open(file, ParcelFileDescriptor.MODE_READ_ONLY);
+        } finally {
+            file.delete();
+        }
     }
 
     public static void copy(InputStream inputStream, File output) throws IOException {
-        OutputStream outputStream = null;
+        copyStream(inputStream, output);
+    }
+
+    /**
+     * Copy stream to file through a fixed size direct buffer, so heap usage does not depend
+     * on the stream length. Stream is closed afterwards.
+     *
+     * @return number of bytes written
+     */
+    public static long copyStream(InputStream inputStream, File output) throws IOException {
+        FileOutputStream outputStream = null;
         try {
             outputStream = new FileOutputStream(output);
-            int read = 0;
-            byte[] bytes = new byte[1024];
-            while ((read = inputStream.read(bytes)) != -1) {
-                outputStream.write(bytes, 0, read);
+            FileChannel outChannel = outputStream.getChannel();
+            ReadableByteChannel inChannel = Channels.newChannel(inputStream);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+            long written = 0;
+            boolean endOfStream = false;
+            while (!endOfStream) {
+                endOfStream = inChannel.read(buffer) == -1;
+                // stream reads are usually small, write only when buffer is full to keep writes large
+                if (!buffer.hasRemaining() || (endOfStream && buffer.position() > 0)) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        written += outChannel.write(buffer);
+                    }
+                    buffer.clear();
+                }
             }
+            return written;
         } finally {
             try {
                 if (inputStream != null) {
@@ -59,4 +156,73 @@ public class FileUtils {
             }
         }
     }
+
+    /** Identifies a copy of an asset: APK it was copied from, its size and CRC-32 from APK's zip entry */
+    private static class AssetStamp {
+        final long updateTime;
+        final long crc;
+        final long length;
+
+        AssetStamp(long updateTime, long crc, long length) {
+            this.updateTime = updateTime;
+            this.crc = crc;
+            this.length = length;
+        }
+
+        static AssetStamp read(File stampFile) {
+            if (!stampFile.exists()) {
+                return null;
+            }
+            BufferedReader reader = null;
+            try {
+                reader = new BufferedReader(new FileReader(stampFile));
+                String[] values = reader.readLine().split(":");
+                return new AssetStamp(Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2]));
+            } catch (Exception e) {
+                return null;
+            } finally {
+                closeQuietly(reader);
+            }
+        }
+
+        /** Read asset entry from APK's central directory, without inflating it */
+        static AssetStamp fromApk(Context context, String assetName, long updateTime) {
+            ZipFile apk = null;
+            try {
+                apk = new ZipFile(context.getApplicationInfo().sourceDir);
+                ZipEntry entry = apk.getEntry("assets/" + assetName);
+                if (entry == null || entry.getCrc() == -1 || entry.getSize() == -1) {
+                    return null;
+                }
+                return new AssetStamp(updateTime, entry.getCrc(), entry.getSize());
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot read asset entry of " + assetName, e);
+                return null;
+            } finally {
+                closeQuietly(apk);
+            }
+        }
+
+        void write(File stampFile) {
+            Writer writer = null;
+            try {
+                writer = new FileWriter(stampFile);
+                writer.write(updateTime + ":" + crc + ":" + length);
+            } catch (IOException e) {
+                Log.w(TAG, "Cannot write asset stamp", e);
+                stampFile.delete();
+            } finally {
+                closeQuietly(writer);
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
 }
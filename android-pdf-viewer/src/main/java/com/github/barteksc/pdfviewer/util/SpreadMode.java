@@ -0,0 +1,26 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.util;
+
+/** How pages are grouped into spreads, pages of a spread are shown side by side */
+public enum SpreadMode {
+    /** Every page on its own */
+    NONE,
+    /** Pages in pairs, the first page on the left */
+    PAIRS,
+    /** First page on its own, like a cover, following pages in pairs */
+    COVER_THEN_PAIRS
+}
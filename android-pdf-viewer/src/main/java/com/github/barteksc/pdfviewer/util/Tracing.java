@@ -0,0 +1,66 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer.util;
+
+import androidx.core.os.TraceCompat;
+
+/**
+ * Trace sections and counters of loading and rendering, shown in Perfetto or systrace.
+ * Nothing is emitted unless {@link Constants#TRACING} is set, so hot paths cost a field read.
+ */
+public class Tracing {
+
+    private Tracing() {
+        // Prevents instantiation
+    }
+
+    /** @return true if tracing is on, check it before building section names or counter values */
+    public static boolean isEnabled() {
+        return Constants.TRACING && TraceCompat.isEnabled();
+    }
+
+    /** Begin a section on the current thread, every call must be followed by {@link #end()} */
+    public static void begin(String sectionName) {
+        if (Constants.TRACING) {
+            TraceCompat.beginSection(sectionName);
+        }
+    }
+
+    public static void end() {
+        if (Constants.TRACING) {
+            TraceCompat.endSection();
+        }
+    }
+
+    /** Begin a section which may end on another thread, ended by {@link #endAsync(String, int)} with the same cookie */
+    public static void beginAsync(String sectionName, int cookie) {
+        if (Constants.TRACING) {
+            TraceCompat.beginAsyncSection(sectionName, cookie);
+        }
+    }
+
+    public static void endAsync(String sectionName, int cookie) {
+        if (Constants.TRACING) {
+            TraceCompat.endAsyncSection(sectionName, cookie);
+        }
+    }
+
+    public static void counter(String counterName, int value) {
+        if (Constants.TRACING) {
+            TraceCompat.setCounter(counterName, value);
+        }
+    }
+}
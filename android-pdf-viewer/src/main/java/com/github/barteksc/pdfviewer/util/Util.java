@@ -21,6 +21,10 @@ import android.util.TypedValue;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class Util {
     private static final int DEFAULT_BUFFER_SIZE = 1024 * 4;
@@ -38,4 +42,16 @@ public class Util {
         }
         return os.toByteArray();
     }
+
+    /** @return SHA-1 of the string as 40 hex digits, used to name cache files after document keys */
+    public static String sha1Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(value.getBytes("UTF-8"));
+            return String.format("%040x", new BigInteger(1, hash));
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            // both are always available on Android
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.github.barteksc.pdfviewer.model.PagePart;
+import com.github.barteksc.pdfviewer.util.Constants;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insertion with eviction and lookups of {@link CacheManager}, done for every visible cell while loading.
+ * All parts share one tiny bitmap, so only the cache itself is measured.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CacheManagerBenchmark {
+
+    private static final int PAGES = 20;
+
+    /** Cells per page side, like a page at zoom 3 */
+    private static final int GRID = 8;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Bitmap bitmap;
+
+    private CacheManager cacheManager;
+
+    private final RectF[] cells = new RectF[GRID * GRID];
+
+    @Before
+    public void setUp() {
+        // recycling on eviction doesn't matter for a bitmap which is never drawn
+        bitmap = Bitmap.createBitmap(1, 1, Bitmap.Config.RGB_565);
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = PagesLoader.getCellBounds(i / GRID, i % GRID, 1f / GRID, 1f / GRID);
+        }
+        cacheManager = new CacheManager();
+        // start with a full cache, so every insert evicts
+        for (int i = 0; i < Constants.Cache.CACHE_SIZE; i++) {
+            cacheManager.cachePart(part(i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        cacheManager.recycle();
+    }
+
+    private PagePart part(int i) {
+        return new PagePart((i / cells.length) % PAGES, bitmap, cells[i % cells.length], false, i);
+    }
+
+    @Test
+    public void cachePartWithEviction() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = Constants.Cache.CACHE_SIZE;
+        while (state.keepRunning()) {
+            cacheManager.cachePart(part(i++));
+        }
+    }
+
+    @Test
+    public void upPartIfContained() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            // every other lookup misses, like cells scrolled into view
+            cacheManager.upPartIfContained(i % (PAGES * 2), cells[i % cells.length], i, false);
+            i++;
+            if (i % Constants.Cache.CACHE_SIZE == 0) {
+                cacheManager.makeANewSet();
+            }
+        }
+    }
+
+    @Test
+    public void getPageParts() {
+        BenchmarkState state = benchmarkRule.getState();
+        List<PagePart> out = new ArrayList<>();
+        int page = 0;
+        while (state.keepRunning()) {
+            out.clear();
+            cacheManager.getPageParts(page++ % PAGES, 0.25f, 0.5f, out);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.RectF;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.github.barteksc.pdfviewer.model.PagePart;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Drawing of cached parts on a software canvas, with thumbnails and stale parts covered by newer ones,
+ * so skipping of covered parts is measured together with the drawing itself.
+ */
+@RunWith(Parameterized.class)
+public class DrawPagesBenchmark {
+
+    @Parameterized.Parameters(name = "layers={0}")
+    public static Collection<Object[]> parameters() {
+        // number of complete sets of parts stacked over every visible page, within the cache size
+        return Arrays.asList(new Object[][]{{1}, {2}});
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int layers;
+
+    private PDFView pdfView;
+
+    private PdfFile pdfFile;
+
+    private Bitmap screen;
+
+    public DrawPagesBenchmark(int layers) {
+        this.layers = layers;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        pdfFile = SyntheticDocuments.open(context, 10, true);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                pdfView = new PDFView(context, null);
+                pdfView.layout(0, 0, SyntheticDocuments.VIEW_SIZE.getWidth(), SyntheticDocuments.VIEW_SIZE.getHeight());
+            }
+        });
+        pdfView.pdfFile = pdfFile;
+
+        screen = Bitmap.createBitmap(SyntheticDocuments.VIEW_SIZE.getWidth(), SyntheticDocuments.VIEW_SIZE.getHeight(),
+                Bitmap.Config.ARGB_8888);
+
+        // pages visible at the top of the document at zoom 1
+        int order = 0;
+        for (int page = 0; page < 2; page++) {
+            PagesLoader.GridSize grid = new PagesLoader.GridSize();
+            PagesLoader.getPageColsRows(grid, pdfFile.getPageSize(page), 1f, pdfView.getPartSize());
+            pdfView.cacheManager.cacheThumbnail(new PagePart(page, partBitmap(), new RectF(0, 0, 1, 1), true, 0));
+            for (int layer = 0; layer < layers; layer++) {
+                for (int row = 0; row < grid.rows; row++) {
+                    for (int col = 0; col < grid.cols; col++) {
+                        RectF bounds = PagesLoader.getCellBounds(row, col, 1f / grid.cols, 1f / grid.rows);
+                        pdfView.cacheManager.cachePart(new PagePart(page, partBitmap(), bounds, false, order++));
+                    }
+                }
+            }
+        }
+    }
+
+    /** Every part has own bitmap, like rendered ones, so evicted parts don't recycle bitmaps still drawn */
+    private Bitmap partBitmap() {
+        int size = (int) pdfView.getPartSize();
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.RGB_565);
+        bitmap.eraseColor(Color.LTGRAY);
+        return bitmap;
+    }
+
+    @After
+    public void tearDown() {
+        pdfView.cacheManager.recycle();
+        pdfView.pdfFile = null;
+        pdfFile.dispose();
+        screen.recycle();
+    }
+
+    @Test
+    public void drawPages() {
+        BenchmarkState state = benchmarkRule.getState();
+        Canvas canvas = new Canvas(screen);
+        while (state.keepRunning()) {
+            pdfView.drawPages(canvas, false);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Offset math of {@link PdfFile}, called for every page on every frame and scroll step.
+ */
+@RunWith(Parameterized.class)
+public class LayoutBenchmark {
+
+    @Parameterized.Parameters(name = "pages={0}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{{10}, {1000}});
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int pages;
+
+    private PdfFile pdfFile;
+
+    public LayoutBenchmark(int pages) {
+        this.pages = pages;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        pdfFile = SyntheticDocuments.open(InstrumentationRegistry.getInstrumentation().getTargetContext(), pages, true);
+    }
+
+    @After
+    public void tearDown() {
+        pdfFile.dispose();
+    }
+
+    @Test
+    public void pageAtOffset() {
+        BenchmarkState state = benchmarkRule.getState();
+        float docLen = pdfFile.getDocLen(1f);
+        // prime step, so offsets walk the whole document without repeating a short pattern
+        float step = docLen / 997;
+        float offset = 0;
+        while (state.keepRunning()) {
+            offset += step;
+            if (offset > docLen) {
+                offset -= docLen;
+            }
+            pdfFile.getPageAtOffset(offset, 1f);
+        }
+    }
+
+    @Test
+    public void pageOffsetAtZoom() {
+        BenchmarkState state = benchmarkRule.getState();
+        int page = 0;
+        while (state.keepRunning()) {
+            page = (page + 7) % pages;
+            pdfFile.getPageOffset(page, 2.5f);
+            pdfFile.getSecondaryPageOffset(page, 2.5f);
+        }
+    }
+
+    @Test
+    public void recalculatePageSizes() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            pdfFile.recalculatePageSizes(SyntheticDocuments.VIEW_SIZE);
+        }
+    }
+}
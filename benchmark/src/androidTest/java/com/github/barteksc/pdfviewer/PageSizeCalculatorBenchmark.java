@@ -0,0 +1,81 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.github.barteksc.pdfviewer.util.FitPolicy;
+import com.github.barteksc.pdfviewer.util.PageSizeCalculator;
+import com.shockwave.pdfium.util.Size;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Fitting of page sizes to the view, repeated for every page after each layout change.
+ */
+@RunWith(Parameterized.class)
+public class PageSizeCalculatorBenchmark {
+
+    @Parameterized.Parameters(name = "policy={0}, fitEachPage={1}")
+    public static Collection<Object[]> parameters() {
+        Collection<Object[]> parameters = new ArrayList<>();
+        for (FitPolicy policy : FitPolicy.values()) {
+            parameters.add(new Object[]{policy, false});
+            parameters.add(new Object[]{policy, true});
+        }
+        return parameters;
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final FitPolicy policy;
+
+    private final boolean fitEachPage;
+
+    private final Size[] pageSizes = {new Size(595, 842), new Size(842, 595), new Size(1191, 1684)};
+
+    public PageSizeCalculatorBenchmark(FitPolicy policy, boolean fitEachPage) {
+        this.policy = policy;
+        this.fitEachPage = fitEachPage;
+    }
+
+    @Test
+    public void calculate() {
+        BenchmarkState state = benchmarkRule.getState();
+        PageSizeCalculator calculator = new PageSizeCalculator(policy, pageSizes[2], pageSizes[2],
+                SyntheticDocuments.VIEW_SIZE, fitEachPage);
+        int i = 0;
+        while (state.keepRunning()) {
+            calculator.calculate(pageSizes[i++ % pageSizes.length]);
+        }
+    }
+
+    @Test
+    public void createCalculator() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            new PageSizeCalculator(policy, pageSizes[1], pageSizes[2], SyntheticDocuments.VIEW_SIZE, fitEachPage);
+        }
+    }
+}
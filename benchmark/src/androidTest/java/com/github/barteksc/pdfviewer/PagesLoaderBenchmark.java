@@ -0,0 +1,106 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Calculation of visible parts of pages, done by {@link PagesLoader} after every scroll and zoom step.
+ */
+@RunWith(Parameterized.class)
+public class PagesLoaderBenchmark {
+
+    @Parameterized.Parameters(name = "pages={0}, zoom={1}")
+    public static Collection<Object[]> parameters() {
+        Collection<Object[]> parameters = new ArrayList<>();
+        for (int pages : new int[]{10, 1000}) {
+            for (float zoom : new float[]{1f, 3f, 10f}) {
+                parameters.add(new Object[]{pages, zoom});
+            }
+        }
+        return parameters;
+    }
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int pages;
+
+    private final float zoom;
+
+    private PDFView pdfView;
+
+    private PdfFile pdfFile;
+
+    public PagesLoaderBenchmark(int pages, float zoom) {
+        this.pages = pages;
+        this.zoom = zoom;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        pdfFile = SyntheticDocuments.open(context, pages, true);
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                pdfView = new PDFView(context, null);
+            }
+        });
+        pdfView.pdfFile = pdfFile;
+        pdfView.zoomTo(zoom);
+    }
+
+    @After
+    public void tearDown() {
+        pdfView.pdfFile = null;
+        pdfFile.dispose();
+    }
+
+    @Test
+    public void renderRangeList() {
+        BenchmarkState state = benchmarkRule.getState();
+        PagesLoader pagesLoader = new PagesLoader(pdfView);
+        float width = SyntheticDocuments.VIEW_SIZE.getWidth();
+        float height = SyntheticDocuments.VIEW_SIZE.getHeight();
+        float docLen = pdfFile.getDocLen(zoom) - height;
+        // horizontal position in the middle of zoomed pages, vertical one walks the whole document
+        float x = (pdfView.toCurrentScale(pdfFile.getMaxPageWidth()) - width) / 2;
+        float step = docLen / 997;
+        float y = 0;
+        while (state.keepRunning()) {
+            y += step;
+            if (y > docLen) {
+                y -= docLen;
+            }
+            pagesLoader.getRenderRangeList(-x, -y, -x - width, -y - height);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import com.github.barteksc.pdfviewer.model.PagePart;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lookup of parts on screen done for every visible page on every frame, with a page zoomed in and growing
+ * numbers of cached parts above and below the screen. Time should not grow with the cache size.
+ */
+@RunWith(Parameterized.class)
+public class VisiblePartsBenchmark {
+
+    @Parameterized.Parameters(name = "cachedParts={0}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{{256}, {1024}, {4096}});
+    }
+
+    /** Cells per page side, like a page at zoom 8 */
+    private static final int GRID = 32;
+
+    /** Screen shows this part of page height, like at zoom 8 */
+    private static final float SCREEN_HEIGHT = 1f / 8;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int cachedParts;
+
+    private Bitmap bitmap;
+
+    private CacheManager cacheManager;
+
+    public VisiblePartsBenchmark(int cachedParts) {
+        this.cachedParts = cachedParts;
+    }
+
+    @Before
+    public void setUp() {
+        // parts are never drawn, so they share one tiny bitmap
+        bitmap = Bitmap.createBitmap(1, 1, Bitmap.Config.RGB_565);
+        cacheManager = new CacheManager();
+        // one more, as the cache evicts when it is full before adding a part
+        cacheManager.setCacheSizes(cachedParts + 1, 4);
+        // cells of the zoomed page first, the rest on following pages
+        for (int i = 0; i < cachedParts; i++) {
+            int cell = i % (GRID * GRID);
+            RectF bounds = PagesLoader.getCellBounds(cell / GRID, cell % GRID, 1f / GRID, 1f / GRID);
+            cacheManager.cachePart(new PagePart(i / (GRID * GRID), bitmap, bounds, false, i));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        cacheManager.recycle();
+    }
+
+    @Test
+    public void getVisibleParts() {
+        BenchmarkState state = benchmarkRule.getState();
+        List<PagePart> out = new ArrayList<>();
+        // rows cached in every configuration
+        float top = 0.1f;
+        while (state.keepRunning()) {
+            out.clear();
+            cacheManager.getPageParts(0, top, top + SCREEN_HEIGHT, out);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import android.content.Context;
+
+import com.github.barteksc.pdfviewer.backend.SyntheticBackend;
+import com.github.barteksc.pdfviewer.source.ByteArraySource;
+import com.github.barteksc.pdfviewer.util.FitPolicy;
+import com.github.barteksc.pdfviewer.util.SpreadMode;
+import com.shockwave.pdfium.util.Size;
+
+import java.io.IOException;
+
+/**
+ * Generates documents with a fixed mix of page sizes, so every run measures the same layout.
+ * Pages come from {@link SyntheticBackend}, so results don't depend on a pdf parser.
+ * Shared by device benchmarks and the ones run on the host JVM, which pass density explicitly.
+ */
+class SyntheticDocuments {
+
+    static final Size VIEW_SIZE = new Size(1080, 1920);
+
+    static final int SPACING_PX = 20;
+
+    /** Page sizes repeat with this period, A4 pages with some landscape and A3 pages in between */
+    private static final int PAGE_SIZES_PERIOD = 77;
+
+    private static final int POINTS_PER_INCH = 72;
+
+    private SyntheticDocuments() {
+        // Prevents instantiation
+    }
+
+    /** @return backend producing documents with given number of pages and given cost of rendering a page */
+    static SyntheticBackend backend(Context context, int pages, long renderCostNanos) {
+        return backend(context.getResources().getDisplayMetrics().densityDpi, pages, renderCostNanos);
+    }
+
+    /** @return backend like {@link #backend(Context, int, long)}, with page sizes measured at given density */
+    static SyntheticBackend backend(int densityDpi, int pages, long renderCostNanos) {
+        Size[] sizes = new Size[PAGE_SIZES_PERIOD];
+        for (int i = 0; i < sizes.length; i++) {
+            int width = 595, height = 842; // A4 portrait, in points
+            if (i % 7 == 3) {
+                width = 842;
+                height = 595;
+            } else if (i % 11 == 5) {
+                width = 1191;
+                height = 1684;
+            }
+            sizes[i] = new Size(width * densityDpi / POINTS_PER_INCH, height * densityDpi / POINTS_PER_INCH);
+        }
+        return new SyntheticBackend(pages, renderCostNanos, sizes);
+    }
+
+    /** @return document laid out in a view of {@link #VIEW_SIZE}, dispose it after use */
+    static PdfFile open(Context context, int pages, boolean vertical) throws IOException {
+        return open(context.getResources().getDisplayMetrics().densityDpi, pages, vertical);
+    }
+
+    /** @return document like {@link #open(Context, int, boolean)}, with page sizes measured at given density */
+    static PdfFile open(int densityDpi, int pages, boolean vertical) throws IOException {
+        // synthetic backend ignores the context and the source
+        DocumentCache.Entry entry = DocumentCache.getInstance().openUnshared(null,
+                new ByteArraySource(new byte[0]), backend(densityDpi, pages, 0), null);
+        PdfFile pdfFile = new PdfFile(entry, FitPolicy.WIDTH, null, vertical, SPACING_PX, false, false,
+                SpreadMode.NONE);
+        pdfFile.measurePageSizes();
+        pdfFile.recalculatePageSizes(VIEW_SIZE);
+        return pdfFile;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Times a benchmark body on the host JVM, for hot paths which don't need a device. The body is warmed up,
+ * then timed in several runs of fixed duration, and the median time per operation is printed.
+ */
+final class JvmBenchmark {
+
+    interface Body {
+        /** @return any result of the operation, so the JIT cannot drop it */
+        float run(int iteration);
+    }
+
+    private static final long WARMUP_NANOS = 1000000000L;
+
+    private static final long RUN_NANOS = 200000000L;
+
+    private static final int RUNS = 10;
+
+    /** Sum of results, read after measuring so no result is dead code */
+    private static volatile float sink;
+
+    private JvmBenchmark() {
+        // Prevents instantiation
+    }
+
+    /** @return median time of an operation in nanoseconds, also printed with the name */
+    static double measure(String name, Body body) {
+        int iteration = 0;
+        float sum = 0;
+        long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < warmupEnd) {
+            sum += body.run(iteration++ & Integer.MAX_VALUE);
+        }
+
+        double[] nanosPerOp = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            long end = start + RUN_NANOS;
+            long operations = 0;
+            long now;
+            // check time every 64 operations, so reading the clock stays out of the result
+            do {
+                for (int i = 0; i < 64; i++) {
+                    sum += body.run(iteration++ & Integer.MAX_VALUE);
+                }
+                operations += 64;
+                now = System.nanoTime();
+            } while (now < end);
+            nanosPerOp[run] = (double) (now - start) / operations;
+        }
+        sink = sum;
+
+        Arrays.sort(nanosPerOp);
+        double median = nanosPerOp[RUNS / 2];
+        System.out.println(String.format(Locale.US, "%s: %.1f ns/op (min %.1f, max %.1f)", name, median,
+                nanosPerOp[0], nanosPerOp[RUNS - 1]));
+        return median;
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * {@link LayoutBenchmark} on the host JVM. Layout math of {@link PdfFile} over a {@link SyntheticDocuments}
+ * document doesn't call into Android, so it runs without a device.
+ */
+@RunWith(Parameterized.class)
+public class LayoutJvmBenchmark {
+
+    /** Density page sizes are measured at, xhdpi */
+    private static final int DENSITY_DPI = 320;
+
+    @Parameterized.Parameters(name = "pages={0}")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][]{{10}, {1000}});
+    }
+
+    private final int pages;
+
+    private PdfFile pdfFile;
+
+    public LayoutJvmBenchmark(int pages) {
+        this.pages = pages;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        pdfFile = SyntheticDocuments.open(DENSITY_DPI, pages, true);
+    }
+
+    @After
+    public void tearDown() {
+        pdfFile.dispose();
+    }
+
+    @Test
+    public void pageAtOffset() {
+        final float docLen = pdfFile.getDocLen(1f);
+        // prime step, so offsets walk the whole document without repeating a short pattern
+        final float step = docLen / 997;
+        JvmBenchmark.measure(name("pageAtOffset"), new JvmBenchmark.Body() {
+            @Override
+            public float run(int iteration) {
+                return pdfFile.getPageAtOffset((iteration % 997) * step, 1f);
+            }
+        });
+    }
+
+    @Test
+    public void pageOffsetAtZoom() {
+        JvmBenchmark.measure(name("pageOffsetAtZoom"), new JvmBenchmark.Body() {
+            @Override
+            public float run(int iteration) {
+                int page = (int) ((iteration * 7L) % pages);
+                return pdfFile.getPageOffset(page, 2.5f) + pdfFile.getSecondaryPageOffset(page, 2.5f);
+            }
+        });
+    }
+
+    @Test
+    public void recalculatePageSizes() {
+        JvmBenchmark.measure(name("recalculatePageSizes"), new JvmBenchmark.Body() {
+            @Override
+            public float run(int iteration) {
+                pdfFile.recalculatePageSizes(SyntheticDocuments.VIEW_SIZE);
+                return pdfFile.getDocLen(1f);
+            }
+        });
+    }
+
+    private String name(String test) {
+        return "Layout." + test + "[pages=" + pages + "]";
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2017 Bartosz Schiller
+ * <p/>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.barteksc.pdfviewer;
+
+import com.github.barteksc.pdfviewer.util.FitPolicy;
+import com.github.barteksc.pdfviewer.util.PageSizeCalculator;
+import com.shockwave.pdfium.util.Size;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * {@link PageSizeCalculatorBenchmark} on the host JVM, {@link PageSizeCalculator} is plain Java.
+ */
+@RunWith(Parameterized.class)
+public class PageSizeCalculatorJvmBenchmark {
+
+    @Parameterized.Parameters(name = "policy={0}, fitEachPage={1}")
+    public static Collection<Object[]> parameters() {
+        Collection<Object[]> parameters = new ArrayList<>();
+        for (FitPolicy policy : FitPolicy.values()) {
+            parameters.add(new Object[]{policy, false});
+            parameters.add(new Object[]{policy, true});
+        }
+        return parameters;
+    }
+
+    private final FitPolicy policy;
+
+    private final boolean fitEachPage;
+
+    private final Size[] pageSizes = {new Size(595, 842), new Size(842, 595), new Size(1191, 1684)};
+
+    public PageSizeCalculatorJvmBenchmark(FitPolicy policy, boolean fitEachPage) {
+        this.policy = policy;
+        this.fitEachPage = fitEachPage;
+    }
+
+    @Test
+    public void calculate() {
+        final PageSizeCalculator calculator = new PageSizeCalculator(policy, pageSizes[2], pageSizes[2],
+                SyntheticDocuments.VIEW_SIZE, fitEachPage);
+        JvmBenchmark.measure(name("calculate"), new JvmBenchmark.Body() {
+            @Override
+            public float run(int iteration) {
+                return calculator.calculate(pageSizes[iteration % pageSizes.length]).getWidth();
+            }
+        });
+    }
+
+    @Test
+    public void createCalculator() {
+        JvmBenchmark.measure(name("createCalculator"), new JvmBenchmark.Body() {
+            @Override
+            public float run(int iteration) {
+                return new PageSizeCalculator(policy, pageSizes[1], pageSizes[2], SyntheticDocuments.VIEW_SIZE,
+                        fitEachPage).getOptimalMaxWidthPageSize().getWidth();
+            }
+        });
+    }
+
+    private String name(String test) {
+        return "PageSizeCalculator." + test + "[policy=" + policy + ", fitEachPage=" + fitEachPage + "]";
+    }
+}